@@ -0,0 +1,371 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a game to any number of local spectators (dashboards, recorders) over a socket.
+ * Attach it with {@link GameEngine#setBoardObserver}.
+ * <p>
+ * Each move is sent as one frame. Most frames are deltas: the player's stats, the cells that
+ * changed and the status messages of the move. Every {@code keyframeInterval} frames, and
+ * whenever a new level starts, a keyframe with the whole board is sent instead. Frames are
+ * big-endian:
+ * <pre>
+ * int    length of the rest of the frame
+ * byte   {@link #KEYFRAME} or {@link #DELTA}
+ * long   frame number
+ * keyframe: int height, int width
+ * int    player row, player column, HP, gold, steps, level, flags (1 = game over, 2 = won)
+ * keyframe: byte[height * width] the {@link CellType} code of each cell, row by row
+ * delta:    int count, then count times (int index = row * width + column, byte code)
+ * int    message count, then each message as a short length and UTF-8 bytes
+ * </pre>
+ * Frames are encoded once on the engine thread and queued for every subscriber, each with its
+ * own bounded queue and sending thread. A subscriber whose queue is full (or who has just
+ * connected) gets nothing more until the next keyframe, so a slow spectator never holds up the
+ * game or the others.
+ */
+public class BoardBroadcaster implements BoardObserver, AutoCloseable {
+    /** The frame type of a keyframe. */
+    public static final byte KEYFRAME = 1;
+    /** The frame type of a delta. */
+    public static final byte DELTA = 2;
+    // How long to wait before accepting again after a failure such as running out of file handles
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final ServerSocketChannel server;
+    // The socket file of a Unix domain socket, deleted on close
+    private final Path socketFile;
+    private final int queueCapacity;
+    private final int keyframeInterval;
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    // Engine thread state: the cells changed since the last frame, each recorded once
+    private GameEngine engine;
+    private int width;
+    private int[] changed = new int[64];
+    private int changedCount;
+    private long[] changedIn = new long[0];
+    private long frame = 1;
+    private long sinceKeyframe;
+    private boolean keyframeDue = true;
+    private boolean moving;
+    private long statusSent;
+    private ByteBuffer encoder = ByteBuffer.allocate(1024);
+
+    /**
+     * Listens on a loopback TCP port.
+     * @param port the port, or 0 for any free port (see {@link #getAddress()})
+     * @throws IOException if the port can't be bound
+     */
+    public BoardBroadcaster(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256, 64);
+    }
+
+    /**
+     * Listens on the given address.
+     * @param address a loopback address, or a {@link UnixDomainSocketAddress}
+     * @param queueCapacity the number of frames each subscriber may fall behind before frames are dropped
+     * @param keyframeInterval the number of frames from one keyframe to the next
+     * @throws IOException if the address can't be bound
+     */
+    public BoardBroadcaster(SocketAddress address, int queueCapacity, int keyframeInterval) throws IOException {
+        if (queueCapacity < 1 || keyframeInterval < 1) {
+            throw new IllegalArgumentException("queue capacity and keyframe interval must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.keyframeInterval = keyframeInterval;
+        boolean unix = address instanceof UnixDomainSocketAddress;
+        server = unix ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        server.bind(address);
+        socketFile = unix ? ((UnixDomainSocketAddress) address).getPath() : null;
+        acceptor = new Thread(this::accept, "MiniDungeon-broadcast-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Subscriber subscriber = new Subscriber(server.accept());
+                subscribers.add(subscriber);
+                subscriber.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void levelStarted(GameEngine engine) {
+        this.engine = engine;
+        width = engine.getWidth();
+        int cells = engine.getHeight() * width;
+        if (changedIn.length < cells) {
+            changedIn = new long[cells];
+        }
+        changedCount = 0;
+        keyframeDue = true;
+        if (!moving) {
+            publish();
+        }
+    }
+
+    @Override
+    public void cellChanged(int row, int col, Cell cell) {
+        if (keyframeDue) {
+            return;
+        }
+        int index = row * width + col;
+        if (changedIn[index] != frame) {
+            changedIn[index] = frame;
+            if (changedCount == changed.length) {
+                changed = Arrays.copyOf(changed, changedCount * 2);
+            }
+            changed[changedCount++] = index;
+        }
+    }
+
+    @Override
+    public void moveStarted() {
+        moving = true;
+    }
+
+    @Override
+    public void moveFinished(GameEngine engine) {
+        moving = false;
+        this.engine = engine;
+        publish();
+    }
+
+    /**
+     * Encodes a frame of everything since the last one and queues it for every subscriber.
+     */
+    private void publish() {
+        if (subscribers.isEmpty()) {
+            // Nobody to send to: skip encoding, and start with a keyframe when someone connects
+            changedCount = 0;
+            statusSent = engine.getStatusCount();
+            keyframeDue = true;
+            sinceKeyframe = 0;
+            frame++;
+            return;
+        }
+        if (++sinceKeyframe >= keyframeInterval) {
+            keyframeDue = true;
+        }
+        boolean key = keyframeDue;
+        byte[] bytes = encode(key);
+        if (key) {
+            keyframeDue = false;
+            sinceKeyframe = 0;
+        }
+        changedCount = 0;
+        frame++;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(bytes, key);
+        }
+    }
+
+    private byte[] encode(boolean key) {
+        Cell[][] map = engine.getMap();
+        int height = engine.getHeight();
+        encoder.clear();
+        ensure(64 + (key ? height * width : changedCount * 5));
+        encoder.putInt(0).put(key ? KEYFRAME : DELTA).putLong(frame);
+        if (key) {
+            encoder.putInt(height).putInt(width);
+        }
+        Player player = engine.getPlayer();
+        encoder.putInt(player.getX()).putInt(player.getY()).putInt(player.getHealth())
+                .putInt(player.getGold()).putInt(player.getSteps()).putInt(engine.getLevel())
+                .putInt((engine.isGameOver() ? 1 : 0) | (engine.hasWon() ? 2 : 0));
+        if (key) {
+            for (int row = 0; row < height; row++) {
+                Cell[] cells = map[row];
+                for (int col = 0; col < width; col++) {
+                    encoder.put((byte) cells[col].getType().ordinal());
+                }
+            }
+        } else {
+            encoder.putInt(changedCount);
+            for (int i = 0; i < changedCount; i++) {
+                int index = changed[i];
+                int row = index / width;
+                encoder.putInt(index).put((byte) map[row][index - row * width].getType().ordinal());
+            }
+        }
+        long statusEnd = engine.getStatusCount();
+        // Messages that have already left the log are skipped
+        long first = Math.max(statusSent, statusEnd - GameEngine.STATUS_LOG_CAPACITY);
+        int countAt = encoder.position();
+        encoder.putInt(0);
+        int messages = 0;
+        for (long sequence = first; sequence < statusEnd; sequence++) {
+            String message = engine.getStatus(sequence);
+            if (message != null) {
+                byte[] utf8 = message.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(utf8.length, Short.MAX_VALUE);
+                ensure(2 + length);
+                encoder.putShort((short) length).put(utf8, 0, length);
+                messages++;
+            }
+        }
+        statusSent = statusEnd;
+        encoder.putInt(countAt, messages);
+        encoder.putInt(0, encoder.position() - 4);
+        return Arrays.copyOf(encoder.array(), encoder.position());
+    }
+
+    private void ensure(int more) {
+        if (encoder.remaining() < more) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(encoder.capacity() * 2, encoder.position() + more));
+            encoder.flip();
+            bigger.put(encoder);
+            encoder = bigger;
+        }
+    }
+
+    /**
+     * A connected spectator: its queue of frames and the thread that sends them.
+     */
+    private class Subscriber implements Runnable {
+        private final SocketChannel channel;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Set and cleared on the engine thread only
+        private volatile boolean waitingForKeyframe = true;
+        private final Thread thread;
+
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+            thread = new Thread(this, "MiniDungeon-broadcast-send");
+            thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        /**
+         * Queues a frame without ever blocking. If the queue is full the backlog is thrown away
+         * and the subscriber waits for the next keyframe.
+         */
+        void offer(byte[] bytes, boolean key) {
+            if (waitingForKeyframe) {
+                if (!key) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                waitingForKeyframe = false;
+            }
+            if (!queue.offer(bytes)) {
+                dropped.addAndGet(queue.size() + 1);
+                queue.clear();
+                waitingForKeyframe = true;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    ByteBuffer bytes = ByteBuffer.wrap(queue.take());
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                }
+            } catch (IOException e) {
+                // The spectator went away
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscribers.remove(this);
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Nothing more to do
+                }
+            }
+        }
+
+        void stop() {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the address spectators connect to.
+     * @return the address
+     */
+    public SocketAddress getAddress() {
+        try {
+            return server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of spectators connected.
+     * @return the count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Returns the number of frames not sent to a spectator because it fell behind or was waiting
+     * for a keyframe, over all spectators.
+     * @return the count
+     */
+    public long getDroppedFrames() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops listening and disconnects every spectator. The socket file of a Unix domain socket
+     * is deleted, so the path can be bound again.
+     * @throws IOException if the socket can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.stop();
+        }
+        if (socketFile != null) {
+            Files.deleteIfExists(socketFile);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dungeon.engine;
+
+/**
+ * Is told about every change to the board of a {@link GameEngine}, so it can keep a copy up to
+ * date without scanning the map (see {@link GameEngine#setBoardObserver}). All calls are made on
+ * the thread that owns the engine.
+ */
+public interface BoardObserver {
+    /**
+     * Called when a new level has been installed, and when the observer is set: the whole board
+     * may have changed.
+     * @param engine the engine
+     */
+    void levelStarted(GameEngine engine);
+
+    /**
+     * Called when a cell of the board is replaced.
+     * @param row the row
+     * @param col the column
+     * @param cell the new cell
+     */
+    void cellChanged(int row, int col, Cell cell);
+
+    /**
+     * Called before a move is made. The changes up to the matching {@link #moveFinished} belong
+     * to one move.
+     */
+    void moveStarted();
+
+    /**
+     * Called after a move, whether or not the player could move.
+     * @param engine the engine, for the player's position and stats
+     */
+    void moveFinished(GameEngine engine);
+
+    /**
+     * Returns an observer that passes every call on to two observers, first to second.
+     * @param first the first observer
+     * @param second the second observer
+     * @return the combined observer
+     */
+    static BoardObserver both(BoardObserver first, BoardObserver second) {
+        return new BoardObserver() {
+            @Override
+            public void levelStarted(GameEngine engine) {
+                first.levelStarted(engine);
+                second.levelStarted(engine);
+            }
+
+            @Override
+            public void cellChanged(int row, int col, Cell cell) {
+                first.cellChanged(row, col, cell);
+                second.cellChanged(row, col, cell);
+            }
+
+            @Override
+            public void moveStarted() {
+                first.moveStarted();
+                second.moveStarted();
+            }
+
+            @Override
+            public void moveFinished(GameEngine engine) {
+                first.moveFinished(engine);
+                second.moveFinished(engine);
+            }
+        };
+    }
+}
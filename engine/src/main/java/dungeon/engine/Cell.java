@@ -0,0 +1,20 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+
+public interface Cell extends Serializable {
+    char getSymbol();
+    CellType getType();
+    void interact(Player player, GameEngine engine);
+
+    /**
+     * Applies the cell's effect on the player when they step onto it, without status messages
+     * or timed effects. {@link #interact} uses this, and so does {@link SharedDungeon}.
+     * @param player the player
+     * @return the cell left on the tile afterwards
+     */
+    default Cell applyTo(Player player) {
+        return this;
+    }
+    boolean isPassable();
+}
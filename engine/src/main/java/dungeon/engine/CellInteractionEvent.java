@@ -0,0 +1,26 @@
+package dungeon.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for the player interacting with a cell ({@link Cell#interact(Player, GameEngine)}).
+ */
+@Name("dungeon.CellInteraction")
+@Label("Cell Interaction")
+@Category({"MiniDungeon", "Engine"})
+class CellInteractionEvent extends Event {
+    @Label("Cell Type")
+    String cellType;
+
+    @Label("Row")
+    int x;
+
+    @Label("Column")
+    int y;
+
+    @Label("Level")
+    int level;
+}
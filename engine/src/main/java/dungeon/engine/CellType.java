@@ -0,0 +1,100 @@
+package dungeon.engine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The kinds of cell in the dungeon. The ordinal of each type is a small, stable code that can be
+ * used to index per-type arrays (e.g. counters) instead of testing classes with instanceof.
+ * Each type that can be placed on the map also knows how to create its cells, so level
+ * generation creates any type through {@link #create(RandomGenerator)}.
+ */
+public enum CellType {
+    EMPTY('.', random -> EmptyCell.INSTANCE),
+    WALL('#', random -> WallCell.INSTANCE),
+    ENTRY('E', random -> new EntryCell()),
+    EXIT('X', random -> new ExitCell()),
+    LADDER('L', random -> new LadderCell()),
+    GOLD('$', random -> new GoldCell(random.nextInt(5) + 1)),
+    TRAP('T', random -> new TrapCell()),
+    HEALTH_POTION('H', random -> new HealthPotionCell()),
+    MELEE_MUTANT('M', random -> new MeleeMutantCell()),
+    RANGED_MUTANT('R', random -> new RangedMutantCell()),
+    PLAYER('P', null);
+
+    /**
+     * Creates the cells of one type.
+     */
+    @FunctionalInterface
+    public interface Factory {
+        /**
+         * Creates a cell.
+         * @param random the random number generator, for cells with random contents (e.g. gold amounts)
+         * @return the new cell
+         */
+        Cell create(RandomGenerator random);
+    }
+
+    private static final CellType[] VALUES = values();
+    private static final CellType[] BY_SYMBOL = new CellType[128];
+
+    static {
+        for (CellType type : VALUES) {
+            BY_SYMBOL[type.symbol] = type;
+        }
+    }
+
+    private final char symbol;
+    private final Factory factory;
+
+    CellType(char symbol, Factory factory) {
+        this.symbol = symbol;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the symbol used for this type in the text UI.
+     * @return the symbol
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Creates a cell of this type.
+     * @param random the random number generator, for cells with random contents
+     * @return the new cell
+     * @throws UnsupportedOperationException if cells of this type can't be placed on the map
+     */
+    public Cell create(RandomGenerator random) {
+        if (factory == null) {
+            throw new UnsupportedOperationException(name() + " cells can't be placed on the map");
+        }
+        return factory.create(random);
+    }
+
+    /**
+     * Returns the type with the given code (its ordinal).
+     * @param code the code
+     * @return the type
+     */
+    public static CellType fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * Returns the type shown with the given symbol.
+     * @param symbol the symbol
+     * @return the type, or null if no type uses the symbol
+     */
+    public static CellType fromSymbol(char symbol) {
+        return symbol < BY_SYMBOL.length ? BY_SYMBOL[symbol] : null;
+    }
+
+    /**
+     * Returns the number of cell types.
+     * @return the count
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -1,13 +1,17 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-
 /**
  * Represents an empty cell in the dungeon.
  */
 public class EmptyCell implements Cell {
+    private static final long serialVersionUID = 2597601898657435859L;
+
+    /**
+     * A shared empty cell. Empty cells have no state, so the map uses this one instance
+     * everywhere, including where an item has been picked up.
+     */
+    public static final EmptyCell INSTANCE = new EmptyCell();
+
     /**
      * Returns the symbol for this cell.
      * @return '.'
@@ -27,6 +31,15 @@ public class EmptyCell implements Cell {
         // Empty cells have no interaction
     }
 
+    /**
+     * Returns the type of this cell.
+     * @return {@link CellType#EMPTY}
+     */
+    @Override
+    public CellType getType() {
+        return CellType.EMPTY;
+    }
+
     /**
      * Returns whether the cell is passable.
      * @return true
@@ -36,14 +49,12 @@ public class EmptyCell implements Cell {
         return true;
     }
 
+
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Keeps empty cells shared when a saved game is loaded.
+     * @return the shared instance
      */
-    @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        // Transparent/empty cell
-        return pane;
+    private Object readResolve() {
+        return INSTANCE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package dungeon.engine;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Checks for the JFR events fired by the engine on every move and level.
+ * No event object is created, and nothing is recorded, unless a recording with these events
+ * enabled is running. The event types are only looked up once Flight Recorder has been started,
+ * so a JVM that never records does not pay for initializing JFR.
+ */
+final class EngineEvents {
+    private EngineEvents() {
+    }
+
+    /**
+     * Returns whether {@link MoveEvent} is being recorded.
+     * @return true if move events should be created
+     */
+    static boolean isMoveEnabled() {
+        return FlightRecorder.isInitialized() && Types.MOVE.isEnabled();
+    }
+
+    /**
+     * Returns whether {@link LevelGenerationEvent} is being recorded.
+     * @return true if generation events should be created
+     */
+    static boolean isGenerationEnabled() {
+        return FlightRecorder.isInitialized() && Types.GENERATION.isEnabled();
+    }
+
+    /**
+     * Returns whether {@link CellInteractionEvent} is being recorded.
+     * @return true if interaction events should be created
+     */
+    static boolean isInteractionEnabled() {
+        return FlightRecorder.isInitialized() && Types.INTERACTION.isEnabled();
+    }
+
+    private static final class Types {
+        static final EventType MOVE = EventType.getEventType(MoveEvent.class);
+        static final EventType GENERATION = EventType.getEventType(LevelGenerationEvent.class);
+        static final EventType INTERACTION = EventType.getEventType(CellInteractionEvent.class);
+    }
+}
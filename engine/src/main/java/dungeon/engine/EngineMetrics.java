@@ -0,0 +1,174 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+/**
+ * Collects performance metrics from one or more game engines: a latency histogram for moves,
+ * counts of cell interactions by type, and the time taken by level generation, saves and loads.
+ * Attach it with {@link GameEngine#setMetrics(EngineMetrics)}; engines without metrics skip all
+ * recording. Metrics can be exported as text or JSON.
+ * <p>
+ * Like {@link LatencyHistogram}, recording is not thread-safe: record from the engine's thread.
+ */
+public class EngineMetrics {
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram generationTime = new LatencyHistogram();
+    private final LatencyHistogram saveTime = new LatencyHistogram();
+    private final LatencyHistogram loadTime = new LatencyHistogram();
+    private final long[] interactions = new long[CellType.count()];
+
+    /**
+     * Records the duration of one move.
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordMove(long nanos) {
+        moveLatency.record(nanos);
+    }
+
+    /**
+     * Counts an interaction with a cell.
+     * @param type the type of the cell the player stepped on
+     */
+    public void countInteraction(CellType type) {
+        interactions[type.ordinal()]++;
+    }
+
+    /**
+     * Records the duration of one level generation.
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordGeneration(long nanos) {
+        generationTime.record(nanos);
+    }
+
+    /**
+     * Records the duration of one save.
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordSave(long nanos) {
+        saveTime.record(nanos);
+    }
+
+    /**
+     * Records the duration of one load.
+     * @param nanos the duration in nanoseconds
+     */
+    public void recordLoad(long nanos) {
+        loadTime.record(nanos);
+    }
+
+    /**
+     * Returns the move latency histogram.
+     * @return the histogram
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Returns the level generation time histogram.
+     * @return the histogram
+     */
+    public LatencyHistogram getGenerationTime() {
+        return generationTime;
+    }
+
+    /**
+     * Returns the save time histogram.
+     * @return the histogram
+     */
+    public LatencyHistogram getSaveTime() {
+        return saveTime;
+    }
+
+    /**
+     * Returns the load time histogram.
+     * @return the histogram
+     */
+    public LatencyHistogram getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * Returns the number of interactions with cells of the given type.
+     * @param type the cell type
+     * @return the count
+     */
+    public long getInteractions(CellType type) {
+        return interactions[type.ordinal()];
+    }
+
+    /**
+     * Clears all metrics.
+     */
+    public void reset() {
+        moveLatency.reset();
+        generationTime.reset();
+        saveTime.reset();
+        loadTime.reset();
+        Arrays.fill(interactions, 0);
+    }
+
+    /**
+     * Returns the metrics as human-readable text, one line per metric (durations in nanoseconds).
+     * @return the text
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        appendText(sb, "move", moveLatency);
+        appendText(sb, "generation", generationTime);
+        appendText(sb, "save", saveTime);
+        appendText(sb, "load", loadTime);
+        sb.append("interactions:");
+        for (CellType type : CellType.values()) {
+            if (interactions[type.ordinal()] > 0) {
+                sb.append(' ').append(type.name().toLowerCase()).append('=').append(interactions[type.ordinal()]);
+            }
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static void appendText(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(name).append(": count=").append(histogram.getCount())
+                .append(" min=").append(histogram.getMin())
+                .append(" mean=").append(Math.round(histogram.getMean()))
+                .append(" p50=").append(histogram.getValueAtPercentile(50))
+                .append(" p99=").append(histogram.getValueAtPercentile(99))
+                .append(" p999=").append(histogram.getValueAtPercentile(99.9))
+                .append(" max=").append(histogram.getMax())
+                .append('\n');
+    }
+
+    /**
+     * Returns the metrics as a JSON object (durations in nanoseconds).
+     * @return the JSON text
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        appendJson(sb, "move", moveLatency).append(',');
+        appendJson(sb, "generation", generationTime).append(',');
+        appendJson(sb, "save", saveTime).append(',');
+        appendJson(sb, "load", loadTime).append(',');
+        sb.append("\"interactions\":{");
+        CellType[] types = CellType.values();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(types[i].name().toLowerCase()).append("\":").append(interactions[i]);
+        }
+        return sb.append("}}").toString();
+    }
+
+    private static StringBuilder appendJson(StringBuilder sb, String name, LatencyHistogram histogram) {
+        return sb.append('"').append(name).append("\":{")
+                .append("\"count\":").append(histogram.getCount())
+                .append(",\"min\":").append(histogram.getMin())
+                .append(",\"mean\":").append(Math.round(histogram.getMean()))
+                .append(",\"p50\":").append(histogram.getValueAtPercentile(50))
+                .append(",\"p99\":").append(histogram.getValueAtPercentile(99))
+                .append(",\"p999\":").append(histogram.getValueAtPercentile(99.9))
+                .append(",\"max\":").append(histogram.getMax())
+                .append('}');
+    }
+}
@@ -1,14 +1,11 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-
 /**
  * Represents the entry cell in the dungeon. The starting position for the player.
  */
 public class EntryCell implements Cell {
+    private static final long serialVersionUID = 7238167942249928572L;
+
     /**
      * Returns the symbol for this cell.
      * @return 'E'
@@ -29,22 +26,20 @@ public class EntryCell implements Cell {
     }
 
     /**
-     * Returns whether the cell is passable.
-     * @return true
+     * Returns the type of this cell.
+     * @return {@link CellType#ENTRY}
      */
     @Override
-    public boolean isPassable() {
-        return true;
+    public CellType getType() {
+        return CellType.ENTRY;
     }
 
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Returns whether the cell is passable.
+     * @return true
      */
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        // Transparent/empty cell for entry
-        return pane;
+    public boolean isPassable() {
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,11 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-
 /**
  * Represents an exit cell in the dungeon. Used to exit the level (or win the game if on the final level).
  */
 public class ExitCell implements Cell {
+    private static final long serialVersionUID = 6092059091548039680L;
+
     /**
      * Returns the symbol for this cell.
      * @return 'X'
@@ -30,22 +27,20 @@ public class ExitCell implements Cell {
     }
 
     /**
-     * Returns whether the cell is passable.
-     * @return true
+     * Returns the type of this cell.
+     * @return {@link CellType#EXIT}
      */
     @Override
-    public boolean isPassable() {
-        return true;
+    public CellType getType() {
+        return CellType.EXIT;
     }
 
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node (for example, an ImageView using an exit asset)
+     * Returns whether the cell is passable.
+     * @return true
      */
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        // Transparent/empty cell for exit
-        return pane;
+    public boolean isPassable() {
+        return true;
     }
-}
\ No newline at end of file
+}
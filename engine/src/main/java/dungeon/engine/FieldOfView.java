@@ -0,0 +1,257 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+
+/**
+ * What the player can see on one level, for fog of war. Visibility is worked out with recursive
+ * shadowcasting out to a fixed radius, and walls (cells that are not passable) block sight.
+ * <p>
+ * Visible and explored tiles are kept in {@code long[]} bitsets indexed by
+ * {@code row * width + column}. The tiles lit by the last update are also kept as a list, so an
+ * update only clears and re-lights tiles within the radius: its cost depends on the radius, not
+ * on the size of the map, and it doesn't allocate. After each update the tiles whose visibility
+ * changed are available from {@link #getChangedCount()} and {@link #getChangedIndex(int)}, so a
+ * renderer can repaint just those.
+ * <p>
+ * The field of view is saved with the game, so a loaded game remembers what was explored.
+ */
+public class FieldOfView implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Row and column multipliers that map the first octant onto each of the eight octants
+    private static final int[] XX = {1, 0, 0, -1, -1, 0, 0, 1};
+    private static final int[] XY = {0, 1, -1, 0, 0, -1, 1, 0};
+    private static final int[] YX = {0, 1, 1, 0, 0, -1, -1, 0};
+    private static final int[] YY = {1, 0, 0, 1, -1, 0, 0, -1};
+
+    private final int height;
+    private final int width;
+    private final int radius;
+    private final long[] explored;
+    // Visibility now and after the update before; swapped on every update
+    private long[] visible;
+    private long[] previous;
+    // The tiles set in visible and previous, so they can be cleared without scanning the map
+    private int[] lit;
+    private int litCount;
+    private int[] previousLit;
+    private int previousLitCount;
+    private final int[] changed;
+    private int changedCount;
+    private long updateCount;
+    private transient Cell[][] map;
+
+    /**
+     * Creates a field of view for a map with nothing seen yet.
+     * @param height the height of the map
+     * @param width the width of the map
+     * @param radius how far the player can see, in tiles
+     */
+    public FieldOfView(int height, int width, int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("radius must be at least 1");
+        }
+        this.height = height;
+        this.width = width;
+        this.radius = radius;
+        int words = (height * width + 63) >>> 6;
+        explored = new long[words];
+        visible = new long[words];
+        previous = new long[words];
+        int maxLit = (2 * radius + 1) * (2 * radius + 1);
+        lit = new int[maxLit];
+        previousLit = new int[maxLit];
+        changed = new int[2 * maxLit];
+    }
+
+    /**
+     * Recomputes what is visible from the given tile.
+     * @param map the map, indexed [row][column]
+     * @param row the row the player is on
+     * @param col the column the player is on
+     */
+    public void update(Cell[][] map, int row, int col) {
+        long[] swapBits = previous;
+        previous = visible;
+        visible = swapBits;
+        int[] swapList = previousLit;
+        int retiredCount = previousLitCount;
+        previousLit = lit;
+        previousLitCount = litCount;
+        lit = swapList;
+        // visible now holds the tiles from two updates ago, listed in lit
+        for (int i = 0; i < retiredCount; i++) {
+            visible[lit[i] >>> 6] = 0;
+        }
+        litCount = 0;
+        this.map = map;
+        light(row, col);
+        for (int octant = 0; octant < 8; octant++) {
+            castLight(row, col, 1, 1.0, 0.0, XX[octant], XY[octant], YX[octant], YY[octant]);
+        }
+        this.map = null;
+        changedCount = 0;
+        for (int i = 0; i < litCount; i++) {
+            if (!get(previous, lit[i])) {
+                changed[changedCount++] = lit[i];
+            }
+        }
+        for (int i = 0; i < previousLitCount; i++) {
+            if (!get(visible, previousLit[i])) {
+                changed[changedCount++] = previousLit[i];
+            }
+        }
+        updateCount++;
+    }
+
+    /**
+     * Lights one octant, row by row outwards, between a start and end slope. Where a wall starts
+     * a shadow, the rest of the octant beyond it is lit by a recursive call with a narrower range.
+     */
+    private void castLight(int cx, int cy, int first, double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int radiusSquared = radius * radius;
+        double newStart = 0;
+        for (int j = first; j <= radius; j++) {
+            boolean blocked = false;
+            for (int dx = -j, dy = -j; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                }
+                if (end > leftSlope) {
+                    break;
+                }
+                int x = cx + dx * xx + dy * xy;
+                int y = cy + dx * yx + dy * yy;
+                boolean inside = x >= 0 && x < height && y >= 0 && y < width;
+                boolean opaque = !inside || !map[x][y].isPassable();
+                if (inside && dx * dx + dy * dy <= radiusSquared) {
+                    light(x, y);
+                }
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(cx, cy, j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Marks a tile visible and explored, once per update.
+     */
+    private void light(int row, int col) {
+        int index = row * width + col;
+        if (!get(visible, index)) {
+            visible[index >>> 6] |= 1L << index;
+            explored[index >>> 6] |= 1L << index;
+            lit[litCount++] = index;
+        }
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns whether a tile was visible at the last update.
+     * @param row the row
+     * @param col the column
+     * @return true if visible
+     */
+    public boolean isVisible(int row, int col) {
+        return get(visible, row * width + col);
+    }
+
+    /**
+     * Returns whether a tile has ever been visible.
+     * @param row the row
+     * @param col the column
+     * @return true if explored
+     */
+    public boolean isExplored(int row, int col) {
+        return get(explored, row * width + col);
+    }
+
+    /**
+     * Returns the number of tiles visible at the last update.
+     * @return the visible tile count
+     */
+    public int getVisibleCount() {
+        return litCount;
+    }
+
+    /**
+     * Returns one of the tiles visible at the last update, as {@code row * width + column}.
+     * @param i the position in the list, from 0 to {@link #getVisibleCount()} - 1
+     * @return the tile index
+     */
+    public int getVisibleIndex(int i) {
+        return lit[i];
+    }
+
+    /**
+     * Returns the number of tiles that became visible or stopped being visible at the last update.
+     * @return the changed tile count
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Returns one of the tiles whose visibility changed at the last update, as
+     * {@code row * width + column}. Use {@link #isVisible(int, int)} to tell which way it changed.
+     * @param i the position in the list, from 0 to {@link #getChangedCount()} - 1
+     * @return the tile index
+     */
+    public int getChangedIndex(int i) {
+        return changed[i];
+    }
+
+    /**
+     * Returns the number of updates so far. A renderer that has missed an update can't rely on
+     * the changed tiles and should repaint everything.
+     * @return the update count
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * Returns the radius the player can see.
+     * @return the radius in tiles
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the height of the map.
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the map.
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+}
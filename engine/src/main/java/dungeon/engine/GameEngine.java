@@ -0,0 +1,1192 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * The main game engine for MiniDungeon.
+ * Handles map generation, player movement, item interactions, level advancement, and game state.
+ */
+public class GameEngine implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * An example board to store the current game state.
+     *
+     * Note: depending on your game, you might want to change this from 'int' to String or something?
+     */
+    private Cell[][] map;
+    private Player player;
+    /** The number of status messages kept in the log. */
+    public static final int STATUS_LOG_CAPACITY = 1000;
+    /** The number of levels in a game unless {@link #setMaxLevel(int)} is called. */
+    public static final int DEFAULT_MAX_LEVEL = 2;
+    private static final int DIFFICULTY_STEP = 2;
+    private static final TimedEffect[] EFFECTS = TimedEffect.values();
+
+    // Declared as a List so games saved before the log was bounded still load; always a StatusLog
+    private List<String> statusLog;
+    private int level = 1;
+    private int difficulty = 3;
+    private int maxSteps = 100;
+    private int steps = 0;
+    private int height;
+    private int width;
+    // The board size at the base difficulty; deeper, harder levels grow up to maxBoardSize
+    private int baseHeight;
+    private int baseWidth;
+    private int maxBoardSize = LevelManager.DEFAULT_MAX_SIZE;
+    private int maxLevel = DEFAULT_MAX_LEVEL;
+    private LevelLayout layout = LevelLayout.OPEN;
+    // 0 when fog of war is off
+    private int viewRadius;
+    private boolean activeMutants;
+    // Null unless timed effects are on
+    private TurnScheduler scheduler;
+    // The game's randomness, split into independent streams (see setRandom): one draws game
+    // seeds, one rolls combat and one picks the contents of new items. Not saved; a loaded game
+    // gets streams derived from its seed and step count.
+    private transient RandomGenerator.SplittableGenerator generation;
+    private transient RandomGenerator combat;
+    private transient RandomGenerator items;
+    // Each level's seed is derived from this, so a level can be generated ahead of time
+    private long seed;
+    private boolean gameOver;
+    private boolean won;
+    private transient boolean statusEchoDisabled;
+    private transient EngineMetrics metrics;
+    private transient boolean advancing;
+    private transient LevelManager levels;
+    private FieldOfView fieldOfView;
+    private transient MutantSystem mutants;
+    private transient BoardObserver observer;
+    private transient GameEventPublisher events;
+    // Batch state, see applyMoves
+    private transient boolean batching;
+    private transient boolean lastStepMoved;
+    private transient int batchApplied;
+    private transient int batchBlocked;
+    private transient int batchStartGold;
+    private transient int batchStartHealth;
+    private transient int batchStartLevel;
+
+    public enum Direction {
+        UP(-1, 0), DOWN(1, 0), LEFT(0, -1), RIGHT(0, 1);
+
+        private final int rowDelta;
+        private final int colDelta;
+        // Built once so that moving doesn't allocate a new message every time
+        private final String movedMessage;
+
+        Direction(int rowDelta, int colDelta) {
+            this.rowDelta = rowDelta;
+            this.colDelta = colDelta;
+            this.movedMessage = "You moved " + name().toLowerCase() + ".";
+        }
+
+        /**
+         * Returns the row change for this direction.
+         * @return the row delta
+         */
+        public int getRowDelta() { return rowDelta; }
+
+        /**
+         * Returns the column change for this direction.
+         * @return the column delta
+         */
+        public int getColDelta() { return colDelta; }
+
+        /**
+         * Returns the direction for a move character (u, d, l or r, in either case).
+         * @param c the move character
+         * @return the direction, or null if the character is not a move
+         */
+        public static Direction fromChar(char c) {
+            switch (c) {
+                case 'u': case 'U': return UP;
+                case 'd': case 'D': return DOWN;
+                case 'l': case 'L': return LEFT;
+                case 'r': case 'R': return RIGHT;
+                default: return null;
+            }
+        }
+    }
+
+    /**
+     * Creates a square game board with the given height and width.
+     * @param height the height of the board
+     * @param width the width of the board
+     */
+    public GameEngine(int height, int width) {
+        this(height, width, 3);
+    }
+
+    /**
+     * Creates a game board with the given height and width and generates the first level
+     * with the given difficulty. Above the default difficulty the board grows (see {@link LevelSpec}).
+     * @param height the height of the board at the default difficulty
+     * @param width the width of the board at the default difficulty
+     * @param difficulty the difficulty of the first level
+     */
+    public GameEngine(int height, int width, int difficulty) {
+        this(height, width, difficulty, new SplittableRandom());
+    }
+
+    /**
+     * Creates a game from a seed, so the same seed and moves always play out the same way.
+     * @param height the height of the board at the default difficulty
+     * @param width the width of the board at the default difficulty
+     * @param difficulty the difficulty of the first level
+     * @param seed the seed
+     */
+    public GameEngine(int height, int width, int difficulty, long seed) {
+        this(height, width, difficulty, new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates a game that takes its randomness from the given generator (see {@link #setRandom}).
+     * @param height the height of the board at the default difficulty
+     * @param width the width of the board at the default difficulty
+     * @param difficulty the difficulty of the first level
+     * @param random the generator
+     */
+    public GameEngine(int height, int width, int difficulty, RandomGenerator.SplittableGenerator random) {
+        this(height, width, difficulty, random, null);
+    }
+
+    /**
+     * Creates a game that records into the given metrics from the start, so the generation of
+     * the first level is recorded too.
+     * @param height the height of the board at the default difficulty
+     * @param width the width of the board at the default difficulty
+     * @param difficulty the difficulty of the first level
+     * @param random the generator
+     * @param metrics the metrics, or null for none
+     */
+    public GameEngine(int height, int width, int difficulty, RandomGenerator.SplittableGenerator random,
+                      EngineMetrics metrics) {
+        this.metrics = metrics;
+        setRandom(random);
+        this.height = height;
+        this.width = width;
+        this.baseHeight = height;
+        this.baseWidth = width;
+        this.difficulty = difficulty;
+        statusLog = new StatusLog(STATUS_LOG_CAPACITY);
+        gameOver = false;
+        won = false;
+        seed = generation.nextLong();
+        startLevel(difficulty);
+    }
+
+    /**
+     * Creates a square game board with the given size for both height and width.
+     * @param size the size of the board
+     */
+    public GameEngine(int size) {
+        this(size, size);
+    }
+
+    /**
+     * Initializes the current level with the given difficulty. This generates a fresh layout
+     * (and fresh layouts for the levels after it).
+     * @param difficulty the difficulty level
+     */
+    public void initializeLevel(int difficulty) {
+        this.difficulty = difficulty;
+        levels().cancelPrefetch();
+        seed = generation.nextLong();
+        if (scheduler != null) {
+            scheduler.clear();
+        }
+        startLevel(difficulty);
+    }
+
+    /**
+     * Installs the current level, using the prefetched one if it is ready, then starts
+     * prefetching the level after it.
+     */
+    private void startLevel(int difficulty) {
+        LevelGenerationEvent event = null;
+        if (EngineEvents.isGenerationEnabled()) {
+            event = new LevelGenerationEvent();
+            event.begin();
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        Level next = levels().enter(seed, level, difficulty);
+        boolean prefetched = levels.wasPrefetched();
+        map = next.getCells();
+        height = next.getHeight();
+        width = next.getWidth();
+        player = new Player(next.getStartX(), next.getStartY());
+        // Nothing is explored on a new level. When climbing a ladder the player is moved to the
+        // entry afterwards, so the view is worked out from there instead
+        fieldOfView = null;
+        if (!advancing) {
+            updateFieldOfView();
+        }
+        mutants = activeMutants ? MutantSystem.fromMap(map) : null;
+        if (observer != null) {
+            observer.levelStarted(this);
+        }
+        if (metrics != null) {
+            metrics.recordGeneration(System.nanoTime() - start);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.level = level;
+                event.difficulty = difficulty;
+                event.height = height;
+                event.width = width;
+                event.advance = advancing;
+                event.prefetched = prefetched;
+                event.commit();
+            }
+        }
+        prefetchNextLevel();
+    }
+
+    /**
+     * Sets whether the next level is generated on a background thread while the current one is
+     * played, so that climbing a ladder doesn't have to wait for generation. Off by default.
+     * The prefetched level is the same one that would otherwise be generated on the spot.
+     * @param enabled true to prefetch the next level
+     */
+    public void setLevelPrefetch(boolean enabled) {
+        levels().setPrefetchEnabled(enabled);
+        prefetchNextLevel();
+    }
+
+    private void prefetchNextLevel() {
+        if (level < maxLevel && !isGameOver()) {
+            levels().prefetch(seed, level + 1, difficulty + DIFFICULTY_STEP);
+        }
+    }
+
+    private LevelManager levels() {
+        if (levels == null) {
+            levels = new LevelManager(baseHeight, baseWidth, maxBoardSize, layout);
+        }
+        return levels;
+    }
+
+    /**
+     * Sets the number of levels in the game; reaching the ladder on the last level wins.
+     * @param maxLevel the number of levels (at least 1)
+     */
+    public void setMaxLevel(int maxLevel) {
+        if (maxLevel < 1) {
+            throw new IllegalArgumentException("maxLevel must be at least 1");
+        }
+        this.maxLevel = maxLevel;
+        prefetchNextLevel();
+    }
+
+    /**
+     * Returns the number of levels in the game.
+     * @return the number of levels
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Sets the largest height or width that levels may grow to as difficulty rises. Applies to
+     * levels generated from now on.
+     * @param maxBoardSize the size limit
+     */
+    public void setMaxBoardSize(int maxBoardSize) {
+        this.maxBoardSize = maxBoardSize;
+        resetLevelManager();
+    }
+
+    /**
+     * Sets the wall layout of levels generated from now on. The default is
+     * {@link LevelLayout#OPEN}; call {@link #initializeLevel(int)} to regenerate the current level.
+     * @param layout the layout
+     */
+    public void setLevelLayout(LevelLayout layout) {
+        this.layout = layout;
+        resetLevelManager();
+    }
+
+    /**
+     * Returns the wall layout of generated levels.
+     * @return the layout
+     */
+    public LevelLayout getLevelLayout() {
+        return layout;
+    }
+
+    /**
+     * Replaces the level manager after a setting it depends on has changed.
+     */
+    private void resetLevelManager() {
+        boolean prefetch = levels().isPrefetchEnabled();
+        levels.cancelPrefetch();
+        levels = null;
+        setLevelPrefetch(prefetch);
+    }
+
+    /**
+     * Turns on fog of war: from now on what the player can see is worked out after every move
+     * (see {@link FieldOfView}). Off by default.
+     * @param radius how far the player can see, in tiles, or 0 to turn fog of war off
+     */
+    public void setViewRadius(int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius must not be negative");
+        }
+        viewRadius = radius;
+        fieldOfView = null;
+        updateFieldOfView();
+    }
+
+    /**
+     * Returns how far the player can see.
+     * @return the radius in tiles, or 0 if fog of war is off
+     */
+    public int getViewRadius() {
+        return viewRadius;
+    }
+
+    /**
+     * Returns what the player can see on the current level.
+     * @return the field of view, or null if fog of war is off
+     */
+    public FieldOfView getFieldOfView() {
+        if (fieldOfView == null && viewRadius > 0) {
+            // Games saved before fog of war was turned on have none yet
+            updateFieldOfView();
+        }
+        return fieldOfView;
+    }
+
+    /**
+     * Recomputes the field of view around the player.
+     */
+    private void updateFieldOfView() {
+        if (viewRadius == 0 || player == null) {
+            return;
+        }
+        if (fieldOfView == null) {
+            fieldOfView = new FieldOfView(height, width, viewRadius);
+        }
+        fieldOfView.update(map, player.getX(), player.getY());
+    }
+
+    /**
+     * Sets whether mutants move and attack on their own each turn (see {@link MutantSystem})
+     * instead of waiting on their tiles. Off by default. Mutants placed with
+     * {@link #replaceCell} after this is turned on stay static.
+     * @param enabled true to make mutants active
+     */
+    public void setActiveMutants(boolean enabled) {
+        activeMutants = enabled;
+        mutants = enabled ? MutantSystem.fromMap(map) : null;
+    }
+
+    /**
+     * Returns whether mutants move and attack on their own.
+     * @return true if mutants are active
+     */
+    public boolean isActiveMutants() {
+        return activeMutants;
+    }
+
+    /**
+     * Returns the active mutants of the current level.
+     * @return the mutants, or null if mutants are not active
+     */
+    public MutantSystem getMutants() {
+        if (mutants == null && activeMutants) {
+            // Not saved with the game, so collected from the map on first use after loading
+            mutants = MutantSystem.fromMap(map);
+        }
+        return mutants;
+    }
+
+    /**
+     * Sets where the game's randomness comes from. The generator draws the seeds of new games
+     * (from which each level's seed is derived), and independent streams for combat rolls and
+     * the contents of new items are split off it, so a game never shares a generator with
+     * another thread and a seeded generator makes the whole game reproducible. The current
+     * level is not affected.
+     * @param random the generator
+     */
+    public void setRandom(RandomGenerator.SplittableGenerator random) {
+        generation = random;
+        combat = random.split();
+        items = random.split();
+    }
+
+    /**
+     * Sets whether effects play out over the following turns (see {@link TimedEffect}): traps
+     * spring and re-arm, potions heal over several turns and defeated mutants come back. Off by
+     * default, in which case traps always hurt, potions heal at once and mutants stay defeated.
+     * Turning it off drops any effects still scheduled.
+     * @param enabled true to turn timed effects on
+     */
+    public void setTimedEffects(boolean enabled) {
+        if (!enabled) {
+            scheduler = null;
+        } else if (scheduler == null) {
+            scheduler = new TurnScheduler(steps);
+        }
+    }
+
+    /**
+     * Returns whether effects play out over the following turns.
+     * @return true if timed effects are on
+     */
+    public boolean isTimedEffects() {
+        return scheduler != null;
+    }
+
+    /**
+     * Returns the scheduler of timed effects.
+     * @return the scheduler, or null if timed effects are off
+     */
+    public TurnScheduler getTurnScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Schedules an effect for {@link TimedEffect#getDelay()} turns from now, if timed effects are on.
+     * @param effect the effect
+     * @param row the row of the tile it applies to
+     * @param col the column of the tile it applies to
+     * @param value the potion's healing left for {@link TimedEffect#HEAL}, the level for
+     *              {@link TimedEffect#RESPAWN}
+     * @param target the {@link TrapCell} for {@link TimedEffect#TRAP_REARM}, the {@link CellType}
+     *               for {@link TimedEffect#RESPAWN}
+     * @return true if it was scheduled, false if timed effects are off
+     */
+    public boolean scheduleEffect(TimedEffect effect, int row, int col, int value, Object target) {
+        if (scheduler == null) {
+            return false;
+        }
+        scheduler.schedule(effect.getDelay(), effect.ordinal(), row, col, value, target);
+        return true;
+    }
+
+    /**
+     * Applies the timed effects that are due this turn.
+     */
+    private void runDueEffects() {
+        while (scheduler.poll(steps)) {
+            int row = scheduler.getRow();
+            int col = scheduler.getCol();
+            int value = scheduler.getValue();
+            switch (EFFECTS[scheduler.getKind()]) {
+                case TRAP_REARM:
+                    ((TrapCell) scheduler.getTarget()).rearm();
+                    break;
+                case HEAL:
+                    player.increaseHP(1);
+                    if (value > 1) {
+                        scheduleEffect(TimedEffect.HEAL, row, col, value - 1, null);
+                    }
+                    break;
+                case RESPAWN:
+                    if (value != level) {
+                        // The player has moved on to another level
+                        break;
+                    }
+                    if (map[row][col].getType() != CellType.EMPTY
+                            || (row == player.getX() && col == player.getY())) {
+                        // Something is in the way, so try again later
+                        scheduleEffect(TimedEffect.RESPAWN, row, col, value, scheduler.getTarget());
+                        break;
+                    }
+                    Cell mutant = ((CellType) scheduler.getTarget()).create(items);
+                    replaceCell(row, col, mutant);
+                    if (mutants != null) {
+                        mutants.add(row, col, mutant);
+                    }
+                    addStatus("A mutant has come back.");
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the seed that the seeds of this game's levels are derived from.
+     * @return the game seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the height of the game board.
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the game board.
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the map of the current game.
+     * @return the 2D array of cells
+     */
+    public Cell[][] getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the player object.
+     * @return the player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Sets the player object.
+     * @param player the player to set
+     */
+    public void setPlayer(Player player) {
+        this.player = player;
+    }
+
+    /**
+     * Replaces the cell at the given coordinates with a new cell.
+     * @param x the row
+     * @param y the column
+     * @param newCell the new cell to place
+     */
+    public void replaceCell(int x, int y, Cell newCell) {
+        map[x][y] = newCell;
+        if (observer != null) {
+            observer.cellChanged(x, y, newCell);
+        }
+    }
+
+    /**
+     * Sets an observer that is told about every change to the board, e.g. a
+     * {@link SharedBoardExport}. It is told about the current board straight away.
+     * @param observer the observer, or null for none
+     */
+    public void setBoardObserver(BoardObserver observer) {
+        this.observer = observer;
+        if (observer != null) {
+            observer.levelStarted(this);
+        }
+    }
+
+    /**
+     * Sets the publisher that the status messages of each move (or batch of moves) are published
+     * through. Only messages added from now on are published.
+     * @param events the publisher, or null for none
+     */
+    public void setEventPublisher(GameEventPublisher events) {
+        this.events = events;
+        if (events != null) {
+            events.attach(this);
+        }
+    }
+
+    /**
+     * Returns the publisher of status messages.
+     * @return the publisher, or null if there is none
+     */
+    public GameEventPublisher getEventPublisher() {
+        return events;
+    }
+
+    /**
+     * Returns the observer of board changes.
+     * @return the observer, or null if there is none
+     */
+    public BoardObserver getBoardObserver() {
+        return observer;
+    }
+
+    /**
+     * Adds a status message to the log.
+     * @param message the message to add
+     */
+    public void addStatus(String message) {
+        if (batching) {
+            // Batched moves report a single summary instead of one message per event
+            return;
+        }
+        statusLog.add(message);
+        if (!statusEchoDisabled) {
+            System.out.println(message); // For text-based UI
+        }
+    }
+
+    /**
+     * Sets whether status messages are also printed to standard output as they are added.
+     * @param enabled true to print messages (the default), false to only keep them in the log
+     */
+    public void setStatusEcho(boolean enabled) {
+        this.statusEchoDisabled = !enabled;
+    }
+
+    /**
+     * Sets the metrics that moves, interactions and level generation are recorded into.
+     * @param metrics the metrics, or null to stop recording
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics this engine records into.
+     * @return the metrics, or null if recording is off
+     */
+    public EngineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the status log messages that are still kept (the last {@link #STATUS_LOG_CAPACITY}), oldest first.
+     * @return the status log
+     */
+    public List<String> getStatusLog() {
+        return statusLog;
+    }
+
+    /**
+     * Returns the number of status messages ever added. This is the sequence number the next
+     * message will get; use it with {@link #getStatus(long)} to follow the log.
+     * @return the total message count
+     */
+    public long getStatusCount() {
+        return ((StatusLog) statusLog).getTotalCount();
+    }
+
+    /**
+     * Returns the status message with the given sequence number.
+     * @param sequence the sequence number (0 for the first message of the game)
+     * @return the message, or null if it is no longer kept
+     */
+    public String getStatus(long sequence) {
+        return ((StatusLog) statusLog).getBySequence(sequence);
+    }
+
+    /**
+     * Sets the number of steps after which the game is lost.
+     * @param maxSteps the maximum number of steps
+     */
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Returns the number of steps after which the game is lost.
+     * @return the maximum number of steps
+     */
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * Advances the game to the next level or wins the game if on the last level.
+     */
+    public void advanceLevel() {
+        if (level < maxLevel) {
+            level++;
+            difficulty += DIFFICULTY_STEP;
+            addStatus("Advancing to Level " + level + "! Difficulty increased to " + difficulty + ".");
+            advancing = true;
+            try {
+                startLevel(difficulty);
+            } finally {
+                advancing = false;
+            }
+            // Keep player HP, gold, steps
+            // Place player at entry
+            player.setX(1);
+            player.setY(1);
+            updateFieldOfView();
+            addStatus("You are now on Level " + level + "!");
+        } else {
+            addStatus("You reached the ladder on Level " + level + ". You win!");
+            gameOver = true;
+            won = true;
+        }
+    }
+
+    /**
+     * Moves the player by the given row and column delta.
+     * @param rowDelta the row change
+     * @param colDelta the column change
+     * @return true if the move was successful, false otherwise
+     */
+    public boolean movePlayer(int rowDelta, int colDelta) {
+        return step(rowDelta, colDelta, null);
+    }
+
+    /**
+     * Moves the player in the given direction.
+     * @param dir the direction to move
+     * @return true if the move was successful, false otherwise
+     */
+    public boolean movePlayer(Direction dir) {
+        if (isGameOver()) {
+            return false;
+        }
+        return step(dir.rowDelta, dir.colDelta, dir.movedMessage);
+    }
+
+    /**
+     * Applies a sequence of moves in one call, stopping at the first move that ends the game.
+     * Per-move status messages are suppressed and a single summary message is logged instead.
+     * @param moves the moves to apply
+     * @return a summary of the batch
+     */
+    public MoveBatchResult applyMoves(Direction[] moves) {
+        return applyMoves(moves, moves.length);
+    }
+
+    /**
+     * Applies the first {@code count} moves of the given array in one call.
+     * @param moves the moves to apply
+     * @param count the number of moves to apply from the start of the array
+     * @return a summary of the batch
+     * @throws IllegalArgumentException if count is negative or larger than the array
+     * @see #applyMoves(Direction[])
+     */
+    public MoveBatchResult applyMoves(Direction[] moves, int count) {
+        if (count < 0 || count > moves.length) {
+            throw new IllegalArgumentException("count must be between 0 and " + moves.length + ", got " + count);
+        }
+        beginBatch();
+        try {
+            for (int i = 0; i < count && !isFinished(); i++) {
+                batchStep(moves[i]);
+            }
+        } finally {
+            batching = false;
+        }
+        return endBatch(count);
+    }
+
+    /**
+     * Applies a compact move script such as "uurddl" in one call. Whitespace is ignored.
+     * @param script the moves, one character (u, d, l or r) per move
+     * @return a summary of the batch
+     * @throws IllegalArgumentException if the script contains any other character
+     */
+    public MoveBatchResult applyMoves(CharSequence script) {
+        int length = script.length();
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+            if (Direction.fromChar(c) != null) {
+                count++;
+            } else if (!Character.isWhitespace(c)) {
+                throw new IllegalArgumentException("Invalid move '" + c + "' at position " + i);
+            }
+        }
+        beginBatch();
+        try {
+            for (int i = 0; i < length && !isFinished(); i++) {
+                Direction dir = Direction.fromChar(script.charAt(i));
+                if (dir != null) {
+                    batchStep(dir);
+                }
+            }
+        } finally {
+            batching = false;
+        }
+        return endBatch(count);
+    }
+
+    private void beginBatch() {
+        batching = true;
+        batchApplied = 0;
+        batchBlocked = 0;
+        batchStartGold = player.getGold();
+        batchStartHealth = player.getHealth();
+        batchStartLevel = level;
+    }
+
+    private void batchStep(Direction dir) {
+        Player before = player;
+        step(dir.rowDelta, dir.colDelta, null);
+        if (player != before) {
+            // A new level starts with a new player, so carry over what the old one gained
+            batchStartGold += player.getGold() - before.getGold();
+            batchStartHealth += player.getHealth() - before.getHealth();
+        }
+        if (lastStepMoved) {
+            batchApplied++;
+        } else {
+            batchBlocked++;
+        }
+    }
+
+    /**
+     * Builds the batch summary and logs it as a single status message.
+     */
+    private MoveBatchResult endBatch(int requested) {
+        MoveBatchResult.Outcome outcome = won ? MoveBatchResult.Outcome.WON
+                : isFinished() ? MoveBatchResult.Outcome.LOST
+                : MoveBatchResult.Outcome.IN_PROGRESS;
+        MoveBatchResult result = new MoveBatchResult(requested, batchApplied, batchBlocked,
+                player.getGold() - batchStartGold, player.getHealth() - batchStartHealth,
+                level - batchStartLevel, outcome);
+        if (requested > 0) {
+            addStatus("Batch: " + result + ".");
+        }
+        if (events != null) {
+            events.flush(this);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether no further moves can change the game (won, dead or out of steps).
+     * @return true if the game is finished
+     */
+    public boolean isFinished() {
+        return isGameOver() || steps >= maxSteps;
+    }
+
+    /**
+     * Performs a single move: bounds and wall checks, cell interaction, ranged attacks and win/lose checks.
+     * @param rowDelta the row change
+     * @param colDelta the column change
+     * @param movedMessage the status message for a successful move, or null for none
+     * @return true if the move was successful and the game goes on, false otherwise
+     */
+    private boolean step(int rowDelta, int colDelta, String movedMessage) {
+        MoveEvent event = null;
+        if (EngineEvents.isMoveEnabled()) {
+            event = new MoveEvent();
+            event.begin();
+        } else if (metrics == null && observer == null && events == null) {
+            return doStep(rowDelta, colDelta, movedMessage);
+        }
+        int fromX = player.getX();
+        int fromY = player.getY();
+        long start = metrics == null ? 0 : System.nanoTime();
+        boolean result;
+        if (observer != null) {
+            BoardObserver watching = observer;
+            watching.moveStarted();
+            try {
+                result = doStep(rowDelta, colDelta, movedMessage);
+            } finally {
+                watching.moveFinished(this);
+            }
+        } else {
+            result = doStep(rowDelta, colDelta, movedMessage);
+        }
+        if (metrics != null) {
+            metrics.recordMove(System.nanoTime() - start);
+        }
+        if (events != null && !batching) {
+            events.flush(this);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.fromX = fromX;
+                event.fromY = fromY;
+                event.toX = player.getX();
+                event.toY = player.getY();
+                event.moved = lastStepMoved;
+                event.level = level;
+                event.height = height;
+                event.width = width;
+                event.commit();
+            }
+        }
+        return result;
+    }
+
+    private boolean doStep(int rowDelta, int colDelta, String movedMessage) {
+        lastStepMoved = false;
+        if (isGameOver()) {
+            return false;
+        }
+        int x = player.getX();
+        int y = player.getY();
+        int newX = x + rowDelta;
+        int newY = y + colDelta;
+
+        // Check bounds
+        if (newX < 0 || newX >= height || newY < 0 || newY >= width) {
+            addStatus("You tried to move out of bounds.");
+            return false;
+        }
+
+        // Check wall
+        if (!map[newX][newY].isPassable()) {
+            addStatus("You tried to move but it is a wall.");
+            return false;
+        }
+
+        // Move player
+        player.setX(newX);
+        player.setY(newY);
+        player.incrementSteps();
+        steps++;
+        lastStepMoved = true;
+        if (movedMessage != null) {
+            addStatus(movedMessage);
+        }
+        if (scheduler != null) {
+            runDueEffects();
+        }
+        updateFieldOfView();
+
+        // Interact with cell
+        Cell[][] board = map;
+        Cell cell = board[newX][newY];
+        if (metrics != null) {
+            metrics.countInteraction(cell.getType());
+        }
+        MutantSystem active = getMutants();
+        if (active != null) {
+            // Attacking a mutant defeats it
+            active.remove(newX, newY);
+        }
+        if (EngineEvents.isInteractionEnabled()) {
+            interactWithEvent(cell, newX, newY);
+        } else {
+            cell.interact(player, this);
+        }
+
+        // Let the mutants act, or check for ranged mutant attacks when they are static
+        // (unless the player just climbed to a new level)
+        if (active == null) {
+            if (map == board) {
+                checkRangedMutantAttack(newX, newY);
+            }
+        } else if (active == mutants) {
+            active.update(this, map, combat);
+        }
+
+        // Check win/lose
+        if (player.getHealth() <= 0) {
+            addStatus("You lost! HP dropped to 0.");
+            return false;
+        }
+        if (steps >= maxSteps) {
+            addStatus("You lost! Maximum steps reached.");
+            return false;
+        }
+        return true;
+    }
+
+    private void interactWithEvent(Cell cell, int x, int y) {
+        CellInteractionEvent event = new CellInteractionEvent();
+        event.begin();
+        cell.interact(player, this);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cellType = cell.getType().name();
+            event.x = x;
+            event.y = y;
+            event.level = level;
+            event.commit();
+        }
+    }
+
+    private void checkRangedMutantAttack(int px, int py) {
+        // Check for RangedMutantCell within 2 tiles (horizontal/vertical)
+        for (int d = -2; d <= 2; d++) {
+            if (d == 0) continue;
+            // Horizontal
+            int nx = px + d;
+            if (nx >= 0 && nx < height && map[nx][py] instanceof RangedMutantCell) {
+                if (combat.nextBoolean()) {
+                    player.decreaseHP(2);
+                    addStatus("A ranged mutant attacked and you lost 2 HP.");
+                } else {
+                    addStatus("A ranged mutant attacked, but missed.");
+                }
+            }
+            // Vertical
+            int ny = py + d;
+            if (ny >= 0 && ny < width && map[px][ny] instanceof RangedMutantCell) {
+                if (combat.nextBoolean()) {
+                    player.decreaseHP(2);
+                    addStatus("A ranged mutant attacked and you lost 2 HP.");
+                } else {
+                    addStatus("A ranged mutant attacked, but missed.");
+                }
+            }
+        }
+    }
+    /**
+     * Prints the map for the text-based game, with the player shown as 'P'.
+     */
+    public void printMap() {
+        StringBuilder sb = new StringBuilder((width + 1) * height);
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                if (i == player.getX() && j == player.getY()) {
+                    sb.append('P');
+                } else {
+                    sb.append(map[i][j].getSymbol());
+                }
+            }
+            sb.append('\n');
+        }
+        System.out.print(sb);
+    }
+
+    public void printStatus() {
+        System.out.println("HP: " + player.getHealth() + ", Gold: " + player.getGold() + ", Steps: " + steps);
+    }
+
+    /**
+     * Plays a text-based game. Run with {@code --pipe [--size N] [file]} to stream move scripts
+     * through the engine instead (see {@link PipeRunner}).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--pipe")) {
+            PipeRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        GameEngine engine = new GameEngine(10);
+        engine.setLevelPrefetch(true);
+        // -Dminidungeon.viewRadius=N turns on fog of war
+        engine.setViewRadius(Integer.getInteger("minidungeon.viewRadius", 0));
+        // -Dminidungeon.activeMutants=true makes mutants move and attack on their own
+        engine.setActiveMutants(Boolean.getBoolean("minidungeon.activeMutants"));
+        // -Dminidungeon.timedEffects=true makes traps re-arm, potions heal over time and mutants come back
+        engine.setTimedEffects(Boolean.getBoolean("minidungeon.timedEffects"));
+        // -Dminidungeon.exportFile=path mirrors the board into a memory-mapped file for other processes
+        String exportFile = System.getProperty("minidungeon.exportFile");
+        BoardObserver observer = exportFile == null ? null : new SharedBoardExport(Path.of(exportFile));
+        // -Dminidungeon.broadcastPort=N streams the game to spectators on a loopback port
+        Integer broadcastPort = Integer.getInteger("minidungeon.broadcastPort");
+        if (broadcastPort != null) {
+            BoardBroadcaster broadcaster = new BoardBroadcaster(broadcastPort);
+            System.out.println("Broadcasting on " + broadcaster.getAddress());
+            observer = observer == null ? broadcaster : BoardObserver.both(observer, broadcaster);
+        }
+        engine.setBoardObserver(observer);
+        TerminalRenderer renderer = TerminalRenderer.forConsole();
+        // Messages are printed after each frame rather than as they happen, so they don't land on the board
+        engine.setStatusEcho(false);
+        long printed = engine.getStatusCount();
+        Scanner scanner = new Scanner(System.in);
+        boolean gameOver = false;
+        System.out.println("Welcome to MiniDungeon! Use u, d, l, r to move. Press 'q' to quit.");
+        while (!gameOver) {
+            renderer.render(engine);
+            printed = printStatusSince(engine, printed);
+            System.out.print("Enter move (u/d/l/r/q): ");
+            System.out.flush();
+            if (!scanner.hasNextLine()) {
+                break;
+            }
+            String input = scanner.nextLine().trim().toLowerCase();
+            if (input.equals("q")) {
+                System.out.println("Game over.");
+                break;
+            }
+            Direction dir = null;
+            switch (input) {
+                case "u": dir = Direction.UP; break;
+                case "d": dir = Direction.DOWN; break;
+                case "l": dir = Direction.LEFT; break;
+                case "r": dir = Direction.RIGHT; break;
+                default: System.out.println("Invalid input. Use u, d, l, r, or q.");
+            }
+            if (dir != null) {
+                if (!engine.movePlayer(dir)) {
+                    gameOver = true;
+                }
+            }
+        }
+        printStatusSince(engine, printed);
+        scanner.close();
+    }
+
+    private static long printStatusSince(GameEngine engine, long sequence) {
+        long end = engine.getStatusCount();
+        for (; sequence < end; sequence++) {
+            String message = engine.getStatus(sequence);
+            if (message != null) {
+                System.out.println(message);
+            }
+        }
+        return end;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (!(statusLog instanceof StatusLog)) {
+            statusLog = new StatusLog(STATUS_LOG_CAPACITY, statusLog);
+        }
+        // Games saved before levels could scale had two levels of a fixed size
+        if (maxLevel == 0) {
+            maxLevel = DEFAULT_MAX_LEVEL;
+            maxBoardSize = LevelManager.DEFAULT_MAX_SIZE;
+            baseHeight = height;
+            baseWidth = width;
+        }
+        if (layout == null) {
+            layout = LevelLayout.OPEN;
+        }
+        setRandom(new SplittableRandom(LevelGenerator.levelSeed(~seed, steps)));
+    }
+
+    public boolean isGameOver() {
+        return gameOver || player.isDead();
+    }
+
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    public boolean hasWon() {
+        return won;
+    }
+
+    public void setWon(boolean won) {
+        this.won = won;
+    }
+
+    public Cell getCell(int row, int col) {
+        return map[row][col];
+    }
+
+    /**
+     * Returns the current level number.
+     * @return the level
+     */
+    public int getLevel() { return level; }
+    /**
+     * Returns the current difficulty.
+     * @return the difficulty
+     */
+    public int getDifficulty() { return difficulty; }
+    /**
+     * Returns the player's current score (gold).
+     * @return the score
+     */
+    public int getScore() {
+        return player.getGold();
+    }
+}
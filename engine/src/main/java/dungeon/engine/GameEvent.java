@@ -0,0 +1,46 @@
+package dungeon.engine;
+
+/**
+ * Something that happened in a game, as published by {@link GameEventPublisher}: one entry of
+ * the engine's status log.
+ */
+public final class GameEvent {
+    private final long sequence;
+    private final int level;
+    private final String message;
+
+    /**
+     * Creates an event.
+     * @param sequence the sequence number of the status message (see {@link GameEngine#getStatus(long)})
+     * @param level the level the game was on
+     * @param message the status message
+     */
+    public GameEvent(long sequence, int level, String message) {
+        this.sequence = sequence;
+        this.level = level;
+        this.message = message;
+    }
+
+    /**
+     * Returns the sequence number of the status message. Numbers increase by one per message.
+     * @return the sequence number
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * Returns the level the game was on when the batch holding this event was published.
+     * @return the level
+     */
+    public int getLevel() { return level; }
+
+    /**
+     * Returns the status message.
+     * @return the message
+     */
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        return sequence + ": " + message;
+    }
+}
@@ -0,0 +1,129 @@
+package dungeon.engine;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Publishes a game's status messages as a {@link Flow.Publisher}, so consumers such as loggers,
+ * metrics or a persistence writer get them pushed on their own threads instead of polling
+ * {@link GameEngine#getStatusLog()}. Set it on an engine with
+ * {@link GameEngine#setEventPublisher}.
+ * <p>
+ * The messages of one move (or one batch of moves) go out together as one list. Each
+ * subscriber has its own buffer and asks for batches with {@link Flow.Subscription#request},
+ * and is called on the executor, so the engine only hands the batch over. What happens when a
+ * subscriber's buffer is full is set by the {@link Overflow} strategy.
+ */
+public class GameEventPublisher implements Flow.Publisher<List<GameEvent>>, AutoCloseable {
+    /**
+     * What to do when a subscriber has fallen so far behind that its buffer is full.
+     */
+    public enum Overflow {
+        /** Drop the batch for that subscriber; the engine never waits. */
+        DROP,
+        /** Wait until the subscriber has room, slowing the engine down to its pace. */
+        BLOCK
+    }
+
+    private final SubmissionPublisher<List<GameEvent>> publisher;
+    private final Overflow overflow;
+    private final AtomicLong dropped = new AtomicLong();
+    private final BiPredicate<Flow.Subscriber<? super List<GameEvent>>, List<GameEvent>> onDrop = (subscriber, batch) -> {
+        dropped.incrementAndGet();
+        return false;
+    };
+    // Owned by the engine thread: the next status message to publish
+    private long cursor;
+
+    /**
+     * Creates a publisher that delivers on the common pool with the default buffer size and
+     * drops batches for subscribers that fall behind.
+     */
+    public GameEventPublisher() {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), Overflow.DROP);
+    }
+
+    /**
+     * Creates a publisher.
+     * @param executor the executor subscribers are called on
+     * @param bufferCapacity the most batches buffered for each subscriber (rounded up to a power of two)
+     * @param overflow what to do when a subscriber's buffer is full
+     */
+    public GameEventPublisher(Executor executor, int bufferCapacity, Overflow overflow) {
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        this.overflow = overflow;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<GameEvent>> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Starts publishing the messages an engine adds from now on.
+     * @param engine the engine
+     */
+    void attach(GameEngine engine) {
+        cursor = engine.getStatusCount();
+    }
+
+    /**
+     * Publishes the messages the engine has added since the last call as one batch. Called by
+     * the engine after each move; call it on the engine's thread after anything else that may
+     * add messages (e.g. starting a level) to send those straight away.
+     * @param engine the engine this publisher is set on
+     */
+    public void flush(GameEngine engine) {
+        long end = engine.getStatusCount();
+        if (cursor == end) {
+            return;
+        }
+        if (!publisher.hasSubscribers()) {
+            cursor = end;
+            return;
+        }
+        // Messages that have already left the log are skipped
+        long first = Math.max(cursor, end - engine.getStatusLog().size());
+        GameEvent[] batch = new GameEvent[(int) (end - first)];
+        int level = engine.getLevel();
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new GameEvent(first + i, level, engine.getStatus(first + i));
+        }
+        cursor = end;
+        if (overflow == Overflow.BLOCK) {
+            publisher.submit(List.of(batch));
+        } else {
+            publisher.offer(List.of(batch), onDrop);
+        }
+    }
+
+    /**
+     * Returns the number of batches dropped because a subscriber's buffer was full, counted
+     * once per subscriber that missed them.
+     * @return the count
+     */
+    public long getDroppedBatches() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of subscribers.
+     * @return the count
+     */
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Tells the subscribers no more events will come, once they have had the ones buffered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+}
@@ -0,0 +1,537 @@
+package dungeon.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a game on its own thread.
+ * The engine thread is the only thread that touches the {@link GameEngine}: other threads submit
+ * commands (moves, new game, save, load) and read the latest {@link RenderSnapshot}, which is
+ * published through an atomic reference after every tick. Messages for the UI (status log entries,
+ * save/load results and errors) are handed over through a lock-free queue.
+ * <p>
+ * Saving copies the game into memory on the engine thread, which keeps the copy consistent,
+ * and writes it to disk on a separate I/O thread; loading reads and rebuilds the game on the
+ * I/O thread and only swaps it in on the engine thread. Neither the UI nor the game waits for
+ * the disk, and progress is reported through notices. Consumers that
+ * want the status messages pushed to them, whatever game is running, can
+ * {@link #subscribe(Flow.Subscriber)} instead.
+ */
+public class GameLoop {
+    /**
+     * A message from the engine thread to the UI.
+     */
+    public static final class Notice {
+        /**
+         * The kind of message.
+         */
+        public enum Kind {
+            /** A message from the engine's status log. */
+            STATUS,
+            /** A game was saved. */
+            SAVED,
+            /** A game was loaded. */
+            LOADED,
+            /** A new game was started. */
+            NEW_GAME,
+            /** A save failed. */
+            SAVE_ERROR,
+            /** A load failed. */
+            LOAD_ERROR,
+            /** A save is under way; the text is the percentage written. */
+            SAVE_PROGRESS,
+            /** A load is under way; the text is the percentage read. */
+            LOAD_PROGRESS,
+            /** The game was saved by autosave. */
+            AUTOSAVED
+        }
+
+        private final Kind kind;
+        private final String text;
+
+        Notice(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+
+        /**
+         * Returns the kind of message.
+         * @return the kind
+         */
+        public Kind getKind() { return kind; }
+
+        /**
+         * Returns the message text.
+         * @return the text
+         */
+        public String getText() { return text; }
+    }
+
+    /** The most commands run in one tick before a snapshot is published. */
+    private static final int MAX_COMMANDS_PER_TICK = 64;
+    // Saves are written, and loads read, in chunks of this size, with progress after each
+    private static final int IO_CHUNK = 64 * 1024;
+    private static final Runnable SHUTDOWN = () -> { };
+
+    private final int height;
+    private final int width;
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    private final AtomicReference<RenderSnapshot> snapshot = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Notice> notices = new ConcurrentLinkedQueue<>();
+    private final GameEventPublisher events = new GameEventPublisher();
+    // Writes saves and reads loads, one at a time and in order
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "MiniDungeon-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The newest autosave not yet being written; a newer one replaces it
+    private final AtomicReference<byte[]> pendingAutosave = new AtomicReference<>();
+    private volatile File autosaveFile;
+    private volatile long autosaveNanos;
+    private final Thread thread;
+    private volatile EngineMetrics metrics;
+
+    // Owned by the engine thread
+    private GameEngine engine;
+    private long statusCursor;
+    private long version;
+    private int gameId;
+    private boolean dirty;
+    private long autosavedVersion;
+    private long nextAutosave;
+
+    /**
+     * Creates a game loop for boards of the given size. Call {@link #start(int)} to begin.
+     * @param height the height of the board
+     * @param width the width of the board
+     */
+    public GameLoop(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.thread = new Thread(this::run, "MiniDungeon-engine");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the engine thread with a new game.
+     * @param difficulty the difficulty of the first game
+     */
+    public void start(int difficulty) {
+        newGame(difficulty);
+        thread.start();
+    }
+
+    /**
+     * Stops the engine thread once the commands already queued have run.
+     */
+    public void shutdown() {
+        commands.add(SHUTDOWN);
+    }
+
+    /**
+     * Sets the metrics that the engine thread records into, including save and load times.
+     * Takes effect from the next new game or load.
+     * @param metrics the metrics, or null to stop recording
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the latest published snapshot.
+     * @return the snapshot, or null if the first game has not been generated yet
+     */
+    public RenderSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the next message for the UI.
+     * @return the message, or null if there are none
+     */
+    public Notice pollNotice() {
+        return notices.poll();
+    }
+
+    /**
+     * Subscribes to the status messages of every game this loop runs, a batch per command
+     * (see {@link GameEventPublisher}). Subscribers are called on the common pool, and miss
+     * batches rather than slow the game down if they fall behind.
+     * @param subscriber the subscriber
+     */
+    public void subscribe(Flow.Subscriber<? super List<GameEvent>> subscriber) {
+        events.subscribe(subscriber);
+    }
+
+    /**
+     * Queues a single move.
+     * @param dir the direction to move
+     */
+    public void move(GameEngine.Direction dir) {
+        commands.add(() -> {
+            engine.movePlayer(dir);
+            dirty = true;
+        });
+    }
+
+    /**
+     * Queues several moves to be made one after another in a single command, so only one
+     * snapshot is published for them. Each move logs its own status messages, as single moves do.
+     * @param moves the moves; the first {@code count} are copied, so the array can be reused
+     * @param count the number of moves
+     */
+    public void move(GameEngine.Direction[] moves, int count) {
+        if (count == 1) {
+            move(moves[0]);
+            return;
+        }
+        GameEngine.Direction[] copy = Arrays.copyOf(moves, count);
+        commands.add(() -> {
+            for (GameEngine.Direction dir : copy) {
+                if (engine.isFinished()) {
+                    break;
+                }
+                engine.movePlayer(dir);
+            }
+            dirty = true;
+        });
+    }
+
+    /**
+     * Queues a new game.
+     * @param difficulty the difficulty of the new game
+     */
+    public void newGame(int difficulty) {
+        commands.add(() -> {
+            GameEngine next = new GameEngine(height, width, difficulty);
+            replaceEngine(next);
+            notices.add(new Notice(Notice.Kind.NEW_GAME, "New game started with difficulty: " + difficulty));
+        });
+    }
+
+    /**
+     * Queues a save of the current game. The game is copied on the engine thread and written on
+     * the I/O thread, with {@link Notice.Kind#SAVE_PROGRESS} notices along the way.
+     * @param file the file to save to
+     */
+    public void save(File file) {
+        commands.add(() -> {
+            SaveLoadEvent event = new SaveLoadEvent();
+            event.begin();
+            long start = System.nanoTime();
+            int height = engine.getHeight();
+            int width = engine.getWidth();
+            byte[] bytes;
+            try {
+                bytes = serialize(engine);
+            } catch (IOException e) {
+                notices.add(new Notice(Notice.Kind.SAVE_ERROR, "Error saving game: " + e.getMessage()));
+                // Failed saves are recorded too
+                commit(event, "save", file, height, width);
+                return;
+            }
+            io.execute(() -> {
+                try {
+                    write(file, bytes, true);
+                    long nanos = System.nanoTime() - start;
+                    // Metrics are only recorded on the engine thread
+                    commands.add(() -> recordSave(nanos));
+                    event.success = true;
+                    notices.add(new Notice(Notice.Kind.SAVED, "Game saved successfully!"));
+                } catch (IOException | RuntimeException e) {
+                    notices.add(new Notice(Notice.Kind.SAVE_ERROR, "Error saving game: " + e.getMessage()));
+                }
+                commit(event, "save", file, height, width);
+            });
+        });
+    }
+
+    /**
+     * Queues a load of a saved game. The file is read and the game rebuilt on the I/O thread,
+     * with {@link Notice.Kind#LOAD_PROGRESS} notices along the way, then swapped in on the
+     * engine thread. Moves made while loading apply to the old game. The load is queued behind
+     * any save queued before it, so it reads what that save wrote.
+     * @param file the file to load from
+     */
+    public void load(File file) {
+        commands.add(() -> io.execute(() -> read(file)));
+    }
+
+    /**
+     * Reads a saved game on the I/O thread and queues it to be swapped in.
+     */
+    private void read(File file) {
+        if (!file.exists()) {
+            notices.add(new Notice(Notice.Kind.LOAD_ERROR, "No save file found!"));
+            return;
+        }
+        SaveLoadEvent event = new SaveLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        GameEngine loaded;
+        try (ObjectInputStream ois = new ObjectInputStream(new ProgressInputStream(
+                Files.newInputStream(file.toPath()), file.length()))) {
+            loaded = (GameEngine) ois.readObject();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            notices.add(new Notice(Notice.Kind.LOAD_ERROR, "Error loading game: " + e.getMessage()));
+            commit(event, "load", file, 0, 0);
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        event.success = true;
+        commit(event, "load", file, loaded.getHeight(), loaded.getWidth());
+        commands.add(() -> {
+            recordLoad(nanos);
+            replaceEngine(loaded);
+            // Replay the loaded game's log, as the GUI did before
+            statusCursor = loaded.getStatusCount() - loaded.getStatusLog().size();
+            notices.add(new Notice(Notice.Kind.LOADED, "Game loaded successfully!"));
+        });
+    }
+
+    /**
+     * Saves the game to a file every so often while it changes. Each autosave is copied on the
+     * engine thread and written on the I/O thread; if writing falls behind, only the newest
+     * copy waiting to be written is kept. Autosaves report {@link Notice.Kind#AUTOSAVED} and
+     * errors, but no progress.
+     * @param file the file to save to, or null to turn autosave off
+     * @param intervalMillis the time between autosaves, in milliseconds
+     */
+    public void setAutosave(File file, long intervalMillis) {
+        if (file != null && intervalMillis <= 0) {
+            throw new IllegalArgumentException("interval must be positive, was " + intervalMillis);
+        }
+        autosaveNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        autosaveFile = file;
+        // Wakes the engine thread so the new interval takes effect
+        commands.add(() -> nextAutosave = System.nanoTime() + autosaveNanos);
+    }
+
+    /**
+     * Takes an autosave copy if one is due and the game has changed since the last.
+     */
+    private void autosaveIfDue() {
+        File file = autosaveFile;
+        if (file == null || engine == null || System.nanoTime() - nextAutosave < 0) {
+            return;
+        }
+        nextAutosave = System.nanoTime() + autosaveNanos;
+        if (version == autosavedVersion) {
+            return;
+        }
+        autosavedVersion = version;
+        try {
+            if (pendingAutosave.getAndSet(serialize(engine)) == null) {
+                io.execute(() -> writeAutosave(file));
+            }
+        } catch (IOException e) {
+            notices.add(new Notice(Notice.Kind.SAVE_ERROR, "Error autosaving game: " + e.getMessage()));
+        }
+    }
+
+    private void writeAutosave(File file) {
+        byte[] bytes = pendingAutosave.getAndSet(null);
+        if (bytes == null) {
+            return;
+        }
+        try {
+            write(file, bytes, false);
+            notices.add(new Notice(Notice.Kind.AUTOSAVED, "Game autosaved."));
+        } catch (IOException | RuntimeException e) {
+            notices.add(new Notice(Notice.Kind.SAVE_ERROR, "Error autosaving game: " + e.getMessage()));
+        }
+    }
+
+    private static byte[] serialize(GameEngine engine) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(engine);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a save next to the file and then moves it into place, so a failed write never
+     * leaves a half-written save behind.
+     */
+    private void write(File file, byte[] bytes, boolean progress) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int reported = -1;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            for (int offset = 0; offset < bytes.length; offset += IO_CHUNK) {
+                out.write(bytes, offset, Math.min(IO_CHUNK, bytes.length - offset));
+                reported = reportProgress(progress, Notice.Kind.SAVE_PROGRESS, offset + IO_CHUNK, bytes.length, reported);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Adds a progress notice when another tenth of the work is done.
+     * @return the tenth last reported
+     */
+    private int reportProgress(boolean enabled, Notice.Kind kind, long done, long total, int reported) {
+        int tenth = total <= 0 ? 10 : (int) Math.min(10, done * 10 / total);
+        if (enabled && tenth > reported) {
+            notices.add(new Notice(kind, (tenth * 10) + "%"));
+            return tenth;
+        }
+        return reported;
+    }
+
+    /**
+     * Counts the bytes read from a file and reports load progress.
+     */
+    private final class ProgressInputStream extends FilterInputStream {
+        private final long total;
+        private long done;
+        private int reported = -1;
+
+        ProgressInputStream(InputStream in, long total) {
+            super(in);
+            this.total = total;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counted(n);
+            }
+            return n;
+        }
+
+        private void counted(int n) {
+            long before = done / IO_CHUNK;
+            done += n;
+            if (done / IO_CHUNK != before || done == total) {
+                reported = reportProgress(true, Notice.Kind.LOAD_PROGRESS, done, total, reported);
+            }
+        }
+    }
+
+    private void commit(SaveLoadEvent event, String operation, File file, int height, int width) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.height = height;
+            event.width = width;
+            event.commit();
+        }
+    }
+
+    private void recordSave(long nanos) {
+        EngineMetrics current = metrics;
+        if (current != null) {
+            current.recordSave(nanos);
+        }
+    }
+
+    private void recordLoad(long nanos) {
+        EngineMetrics current = metrics;
+        if (current != null) {
+            current.recordLoad(nanos);
+        }
+    }
+
+    private void replaceEngine(GameEngine next) {
+        engine = next;
+        engine.setMetrics(metrics);
+        engine.setLevelPrefetch(true);
+        engine.setEventPublisher(events);
+        statusCursor = engine.getStatusCount();
+        gameId++;
+        dirty = true;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Runnable command;
+                if (autosaveFile == null) {
+                    command = commands.take();
+                } else {
+                    command = commands.poll(Math.max(0, nextAutosave - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (command == null) {
+                        autosaveIfDue();
+                        continue;
+                    }
+                }
+                int count = 0;
+                while (command != null) {
+                    if (command == SHUTDOWN) {
+                        events.close();
+                        // Saves already queued are still written
+                        io.shutdown();
+                        return;
+                    }
+                    command.run();
+                    count++;
+                    // Run what is already queued before publishing, but keep frames coming under load
+                    command = count < MAX_COMMANDS_PER_TICK ? commands.poll() : null;
+                }
+                publish();
+                autosaveIfDue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands new status messages and, if anything changed, a new snapshot to the UI.
+     */
+    private void publish() {
+        long count = engine.getStatusCount();
+        if (statusCursor < count - engine.getStatusLog().size()) {
+            // Messages the log has already dropped are skipped
+            statusCursor = count - engine.getStatusLog().size();
+        }
+        while (statusCursor < count) {
+            notices.add(new Notice(Notice.Kind.STATUS, engine.getStatus(statusCursor++)));
+        }
+        // Messages added outside moves (e.g. by a new game) go out with the tick
+        events.flush(engine);
+        if (dirty) {
+            snapshot.set(RenderSnapshot.capture(engine, ++version, gameId));
+            dirty = false;
+        }
+    }
+}
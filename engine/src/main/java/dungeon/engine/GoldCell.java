@@ -1,14 +1,10 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-
 /**
  * Represents a gold cell in the dungeon. Collecting it increases the player's score.
  */
 public class GoldCell implements Cell {
+    private static final long serialVersionUID = 1667580600815079352L;
     private int value;
     private boolean collected;
 
@@ -38,37 +34,38 @@ public class GoldCell implements Cell {
     @Override
     public void interact(Player player, GameEngine engine) {
         if (!collected) {
-            player.addGold(2);
-            collected = true;
-            engine.replaceCell(player.getX(), player.getY(), new EmptyCell());
+            engine.replaceCell(player.getX(), player.getY(), applyTo(player));
             engine.addStatus("You picked up a gold.");
         }
     }
 
     /**
-     * Returns whether the cell is passable.
-     * @return true
+     * Gives the player 2 gold.
+     * @param player the player
+     * @return an empty cell
      */
     @Override
-    public boolean isPassable() {
-        return true;
+    public Cell applyTo(Player player) {
+        player.addGold(2);
+        collected = true;
+        return EmptyCell.INSTANCE;
     }
 
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Returns the type of this cell.
+     * @return {@link CellType#GOLD}
      */
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        if (!collected) {
-            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(
-                    getClass().getResource("/gold.png").toExternalForm()
-            );
-            imageView.setFitWidth(40);
-            imageView.setFitHeight(40);
-            pane.getChildren().add(imageView);
-        }
-        return pane;
+    public CellType getType() {
+        return CellType.GOLD;
+    }
+
+    /**
+     * Returns whether the cell is passable.
+     * @return true
+     */
+    @Override
+    public boolean isPassable() {
+        return true;
     }
-}
\ No newline at end of file
+}
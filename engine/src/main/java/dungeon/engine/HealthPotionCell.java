@@ -0,0 +1,73 @@
+package dungeon.engine;
+
+/**
+ * Represents a health potion cell in the dungeon. Restores player HP when collected.
+ */
+public class HealthPotionCell implements Cell {
+    private static final long serialVersionUID = 5485849762194588233L;
+    // The HP a potion restores
+    private static final int HEAL = 4;
+    private boolean collected;
+
+    public HealthPotionCell() {
+        this.collected = false;
+    }
+
+    /**
+     * Returns the symbol for this cell.
+     * @return 'H' if not collected, '.' if collected
+     */
+    @Override
+    public char getSymbol() {
+        return collected ? '.' : 'H';
+    }
+
+    /**
+     * Handles interaction with the player (restores HP, cell becomes empty).
+     * @param player the player
+     * @param engine the game engine
+     */
+    @Override
+    public void interact(Player player, GameEngine engine) {
+        if (!collected) {
+            if (engine.scheduleEffect(TimedEffect.HEAL, 0, 0, HEAL, null)) {
+                collected = true;
+                engine.replaceCell(player.getX(), player.getY(), EmptyCell.INSTANCE);
+                engine.addStatus("You picked up a health potion and will recover 4 HP over 4 turns.");
+            } else {
+                engine.replaceCell(player.getX(), player.getY(), applyTo(player));
+                engine.addStatus("You picked up a health potion and recovered 4 HP.");
+            }
+        }
+    }
+
+    /**
+     * Gives the player back 4 HP at once.
+     * @param player the player
+     * @return an empty cell
+     */
+    @Override
+    public Cell applyTo(Player player) {
+        player.increaseHP(HEAL);
+        collected = true;
+        return EmptyCell.INSTANCE;
+    }
+
+    /**
+     * Returns the type of this cell.
+     * @return {@link CellType#HEALTH_POTION}
+     */
+    @Override
+    public CellType getType() {
+        return CellType.HEALTH_POTION;
+    }
+
+    /**
+     * Returns whether the cell is passable.
+     * @return true
+     */
+    @Override
+    public boolean isPassable() {
+        return true;
+    }
+}
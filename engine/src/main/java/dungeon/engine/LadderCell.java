@@ -1,14 +1,11 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-
 /**
  * Represents a ladder cell in the dungeon. Used to advance to the next level or win the game.
  */
 public class LadderCell implements Cell {
+    private static final long serialVersionUID = -6712346506594395121L;
+
     /**
      * Returns the symbol for this cell.
      * @return 'L'
@@ -26,25 +23,15 @@ public class LadderCell implements Cell {
         engine.advanceLevel();
     }
     /**
-     * Returns whether the cell is passable.
-     * @return true
+     * Returns the type of this cell.
+     * @return {@link CellType#LADDER}
      */
     @Override
-    public boolean isPassable() { return true; }
-
+    public CellType getType() { return CellType.LADDER; }
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Returns whether the cell is passable.
+     * @return true
      */
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(
-                getClass().getResource("/ladder.png").toExternalForm()
-        );
-        imageView.setFitWidth(40);
-        imageView.setFitHeight(40);
-        pane.getChildren().add(imageView);
-        return pane;
-    }
-}
\ No newline at end of file
+    public boolean isPassable() { return true; }
+}
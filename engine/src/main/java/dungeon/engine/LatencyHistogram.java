@@ -0,0 +1,131 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of durations in nanoseconds, in the style of HdrHistogram.
+ * Values below 128 are counted exactly; larger values fall into buckets that split each power of
+ * two into 64 equal parts, so any recorded value is reported within about 1.6% of its true value.
+ * The bucket counts live in one preallocated array, so recording never allocates and costs a
+ * couple of nanoseconds (a leading-zero count, a shift and an increment).
+ * <p>
+ * Not thread-safe: record from a single thread. Reading while another thread records gives
+ * approximate results, which is fine for monitoring.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKETS = SUB_BUCKET_COUNT + (64 - SUB_BUCKET_BITS) * HALF_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records one value.
+     * @param value the duration in nanoseconds (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (subBucket - HALF_COUNT);
+    }
+
+    /**
+     * Returns the highest value that falls into the same bucket as values at the given index.
+     */
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / HALF_COUNT + 1;
+        long subBucket = offset % HALF_COUNT + HALF_COUNT;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     * @return the minimum, or 0 if nothing has been recorded
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return the maximum
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * @return the mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall.
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at the percentile (to within the histogram's precision)
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
@@ -0,0 +1,96 @@
+package dungeon.engine;
+
+/**
+ * A generated dungeon level that has not been installed in a {@link GameEngine} yet.
+ * Built by {@link LevelGenerator}; once installed, the engine owns the cells.
+ */
+public class Level {
+    private final int number;
+    private final int difficulty;
+    private final long seed;
+    private final Cell[][] cells;
+    private final int startX;
+    private final int startY;
+
+    /**
+     * Creates a level.
+     * @param number the level number (1 for the first level)
+     * @param difficulty the difficulty the level was generated with
+     * @param seed the seed the level was generated from
+     * @param cells the cells, indexed [row][column]
+     * @param startX the row the player starts on
+     * @param startY the column the player starts on
+     */
+    public Level(int number, int difficulty, long seed, Cell[][] cells, int startX, int startY) {
+        this.number = number;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.cells = cells;
+        this.startX = startX;
+        this.startY = startY;
+    }
+
+    /**
+     * Returns the level number.
+     * @return the level number
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the difficulty the level was generated with.
+     * @return the difficulty
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Returns the seed the level was generated from.
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the cells of the level.
+     * @return the 2D array of cells
+     */
+    public Cell[][] getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns the height of the level.
+     * @return the height
+     */
+    public int getHeight() {
+        return cells.length;
+    }
+
+    /**
+     * Returns the width of the level.
+     * @return the width
+     */
+    public int getWidth() {
+        return cells[0].length;
+    }
+
+    /**
+     * Returns the row the player starts on.
+     * @return the start row
+     */
+    public int getStartX() {
+        return startX;
+    }
+
+    /**
+     * Returns the column the player starts on.
+     * @return the start column
+     */
+    public int getStartY() {
+        return startY;
+    }
+}
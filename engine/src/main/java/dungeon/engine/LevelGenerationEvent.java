@@ -0,0 +1,36 @@
+package dungeon.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for generating a level ({@link GameEngine#initializeLevel(int)}).
+ */
+@Name("dungeon.LevelGeneration")
+@Label("Level Generation")
+@Category({"MiniDungeon", "Engine"})
+@Description("Generation of a dungeon level")
+class LevelGenerationEvent extends Event {
+    @Label("Level")
+    int level;
+
+    @Label("Difficulty")
+    int difficulty;
+
+    @Label("Height")
+    int height;
+
+    @Label("Width")
+    int width;
+
+    @Label("Advance")
+    @Description("True if the level was generated because the player climbed a ladder")
+    boolean advance;
+
+    @Label("Prefetched")
+    @Description("True if the level had already been generated in the background")
+    boolean prefetched;
+}
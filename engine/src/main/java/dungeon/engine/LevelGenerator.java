@@ -0,0 +1,119 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates dungeon levels. A level depends only on its {@link LevelSpec} and seed, so the same
+ * level can be generated ahead of time on another thread (see {@link #generateAsync}) and swapped
+ * in when the player reaches it.
+ */
+public final class LevelGenerator {
+    private LevelGenerator() {
+    }
+
+    /**
+     * Derives the seed of a level from the seed of the game, so every level of a game gets its own
+     * well-mixed seed (using the SplitMix64 finalizer).
+     * @param gameSeed the seed of the game
+     * @param level the level number
+     * @return the seed of the level
+     */
+    public static long levelSeed(long gameSeed, int level) {
+        long z = gameSeed + level * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Generates a level.
+     * @param spec the size and spawn counts of the level
+     * @param number the level number
+     * @param difficulty the difficulty
+     * @param seed the seed of the level (see {@link #levelSeed(long, int)})
+     * @return the level
+     * @throws IllegalArgumentException if the spec holds more items than the board has room for
+     */
+    public static Level generate(LevelSpec spec, int number, int difficulty, long seed) {
+        int height = spec.getHeight();
+        int width = spec.getWidth();
+        SplittableRandom random = new SplittableRandom(seed);
+        Cell[][] map = new Cell[height][width];
+        // Start from solid wall and carve the layout out of it; every open cell stays reachable
+        // from every other
+        for (int i = 0; i < height; i++) {
+            Arrays.fill(map[i], WallCell.INSTANCE);
+        }
+        int free = MazeGenerator.carve(map, random, spec.getLayout());
+        if (spec.getTotalCount() > free - 2) {
+            throw new IllegalArgumentException("Too many items (" + spec.getTotalCount() + ") for a "
+                    + height + "x" + width + " level");
+        }
+        // Place Entry at bottom left [height-2][1]
+        map[height-2][1] = new EntryCell();
+        // Place Ladder at random location (not on wall or entry)
+        int ladderX, ladderY;
+        do {
+            ladderX = 1 + random.nextInt(height-2);
+            ladderY = 1 + random.nextInt(width-2);
+        } while (map[ladderX][ladderY] != EmptyCell.INSTANCE);
+        map[ladderX][ladderY] = new LadderCell();
+        // Place the fixed spawns from the spawn table (5 gold, 5 traps, 3 melee, 1 ranged
+        // and 2 potions at the base difficulty), then the randomly drawn ones
+        SpawnTable spawns = spec.getSpawnTable();
+        for (int code = 0; code < CellType.count(); code++) {
+            CellType type = CellType.fromCode(code);
+            for (int i = spawns.getCount(type); i > 0; i--) {
+                placeRandomItem(map, random, type);
+            }
+        }
+        for (int i = spawns.getRandomCount(); i > 0; i--) {
+            placeRandomItem(map, random, spawns.sample(random));
+        }
+        return new Level(number, difficulty, seed, map, height - 2, 1);
+    }
+
+    /**
+     * Places a new cell of the given type on a random empty interior cell.
+     */
+    private static void placeRandomItem(Cell[][] map, RandomGenerator random, CellType type) {
+        int height = map.length;
+        int width = map[0].length;
+        while (true) {
+            int x = 1 + random.nextInt(height-2);
+            int y = 1 + random.nextInt(width-2);
+            if (map[x][y] == EmptyCell.INSTANCE) {
+                map[x][y] = type.create(random);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Generates a level on a background thread.
+     * @param spec the size and spawn counts of the level
+     * @param number the level number
+     * @param difficulty the difficulty
+     * @param seed the seed of the level
+     * @return the level, once generated
+     */
+    public static CompletableFuture<Level> generateAsync(LevelSpec spec, int number, int difficulty, long seed) {
+        return CompletableFuture.supplyAsync(() -> generate(spec, number, difficulty, seed), Prefetch.EXECUTOR);
+    }
+
+    /**
+     * Holds the prefetch thread, which is only started the first time a level is prefetched.
+     */
+    private static final class Prefetch {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "MiniDungeon-level-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
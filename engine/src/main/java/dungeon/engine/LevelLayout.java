@@ -0,0 +1,13 @@
+package dungeon.engine;
+
+/**
+ * The wall layout of a generated level.
+ */
+public enum LevelLayout {
+    /** One open room inside the boundary wall (the classic layout). */
+    OPEN,
+    /** A maze of one-cell corridors (see {@link MazeGenerator}). */
+    MAZE,
+    /** Rectangular rooms joined by maze corridors. */
+    ROOMS
+}
@@ -0,0 +1,151 @@
+package dungeon.engine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Supplies the levels of one game. Only the current level and, when prefetching, the next one
+ * are held; a level is dropped as soon as the player leaves it, so a run through thousands of
+ * levels uses no more memory than a run through two.
+ * <p>
+ * Levels are built from {@link LevelSpec#forDifficulty} and seeded from the game seed with
+ * {@link LevelGenerator#levelSeed}, so a prefetched level is the same one that would otherwise be
+ * generated when the player gets there.
+ */
+public class LevelManager {
+    /** The default limit on the height and width of a level. */
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private final int baseHeight;
+    private final int baseWidth;
+    private final int maxSize;
+    private final LevelLayout layout;
+    private Level current;
+    private CompletableFuture<Level> next;
+    private boolean prefetchEnabled;
+    private boolean lastPrefetched;
+
+    /**
+     * Creates a level manager.
+     * @param baseHeight the height of a level at the base difficulty
+     * @param baseWidth the width of a level at the base difficulty
+     * @param maxSize the largest height or width a level may grow to
+     * @param layout the wall layout of the levels
+     */
+    public LevelManager(int baseHeight, int baseWidth, int maxSize, LevelLayout layout) {
+        this.baseHeight = baseHeight;
+        this.baseWidth = baseWidth;
+        this.maxSize = Math.max(maxSize, Math.max(baseHeight, baseWidth));
+        this.layout = layout;
+    }
+
+    /**
+     * Returns the spec of a level with the given difficulty.
+     * @param difficulty the difficulty
+     * @return the spec
+     */
+    public LevelSpec specFor(int difficulty) {
+        return LevelSpec.forDifficulty(baseHeight, baseWidth, maxSize, difficulty, layout);
+    }
+
+    /**
+     * Makes the given level current, using the prefetched level if it matches and generating it
+     * otherwise. The previous level is released.
+     * @param gameSeed the seed of the game
+     * @param number the level number
+     * @param difficulty the difficulty
+     * @return the level
+     */
+    public Level enter(long gameSeed, int number, int difficulty) {
+        long seed = LevelGenerator.levelSeed(gameSeed, number);
+        Level level = takePrefetched(number, difficulty, seed);
+        lastPrefetched = level != null;
+        if (level == null) {
+            level = LevelGenerator.generate(specFor(difficulty), number, difficulty, seed);
+        }
+        current = level;
+        return level;
+    }
+
+    /**
+     * Starts generating the given level in the background, if prefetching is on and no level is
+     * being prefetched already.
+     * @param gameSeed the seed of the game
+     * @param number the level number
+     * @param difficulty the difficulty
+     */
+    public void prefetch(long gameSeed, int number, int difficulty) {
+        if (!prefetchEnabled || next != null) {
+            return;
+        }
+        next = LevelGenerator.generateAsync(specFor(difficulty), number, difficulty,
+                LevelGenerator.levelSeed(gameSeed, number));
+    }
+
+    /**
+     * Returns the prefetched level if it matches, waiting for it to finish if needed.
+     */
+    private Level takePrefetched(int number, int difficulty, long seed) {
+        if (next == null) {
+            return null;
+        }
+        Level level = next.join();
+        next = null;
+        if (level.getNumber() != number || level.getDifficulty() != difficulty || level.getSeed() != seed) {
+            return null;
+        }
+        return level;
+    }
+
+    /**
+     * Drops the level being prefetched, if any.
+     */
+    public void cancelPrefetch() {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    /**
+     * Sets whether the next level is generated in the background.
+     * @param enabled true to prefetch
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        prefetchEnabled = enabled;
+        if (!enabled) {
+            cancelPrefetch();
+        }
+    }
+
+    /**
+     * Returns whether the next level is generated in the background.
+     * @return true if prefetching is on
+     */
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    /**
+     * Returns whether the last level entered had been prefetched.
+     * @return true if it was prefetched
+     */
+    public boolean wasPrefetched() {
+        return lastPrefetched;
+    }
+
+    /**
+     * Returns the current level.
+     * @return the level, or null if none has been entered (e.g. after loading a saved game)
+     */
+    public Level getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns whether a level is being prefetched or is ready to be entered.
+     * @return true if a level is held besides the current one
+     */
+    public boolean hasPrefetched() {
+        return next != null;
+    }
+}
@@ -0,0 +1,152 @@
+package dungeon.engine;
+
+/**
+ * The size and {@link SpawnTable} of a level: which items and enemies it holds.
+ * {@link #forDifficulty} scales both with difficulty. Difficulty 3, the default, gives the
+ * classic 5 gold, 5 traps, 3 melee mutants, 1 ranged mutant and 2 health potions on the base
+ * board; higher difficulties add randomly drawn hazards, take away potions and grow the board
+ * up to a limit.
+ */
+public class LevelSpec {
+    /** The difficulty that gives the classic level. */
+    public static final int BASE_DIFFICULTY = 3;
+
+    private final int height;
+    private final int width;
+    private final SpawnTable spawns = new SpawnTable();
+    private LevelLayout layout = LevelLayout.OPEN;
+
+    /**
+     * Creates a spec with no items. Fill in the spawn table with {@link #getSpawnTable()}.
+     * @param height the height of the level
+     * @param width the width of the level
+     */
+    public LevelSpec(int height, int width) {
+        if (height < 3 || width < 3) {
+            throw new IllegalArgumentException("A level must be at least 3x3, was " + height + "x" + width);
+        }
+        this.height = height;
+        this.width = width;
+    }
+
+    /**
+     * Returns the spec for a level of the given difficulty. Counts grow with the interior area
+     * of the board, so density stays the same as the board grows. Each point of difficulty above
+     * the default adds hazards drawn at random (traps, melee and ranged mutants at 6:3:2).
+     * @param baseHeight the height of the board at the base difficulty
+     * @param baseWidth the width of the board at the base difficulty
+     * @param maxSize the largest height or width the board may grow to
+     * @param difficulty the difficulty
+     * @return the spec, with the open layout
+     */
+    public static LevelSpec forDifficulty(int baseHeight, int baseWidth, int maxSize, int difficulty) {
+        return forDifficulty(baseHeight, baseWidth, maxSize, difficulty, LevelLayout.OPEN);
+    }
+
+    /**
+     * Returns the spec for a level of the given difficulty and layout. Levels with interior walls
+     * have about half as much floor, so their items may fill only a quarter of the interior.
+     * @param baseHeight the height of the board at the base difficulty
+     * @param baseWidth the width of the board at the base difficulty
+     * @param maxSize the largest height or width the board may grow to
+     * @param difficulty the difficulty
+     * @param layout the wall layout
+     * @return the spec
+     * @see #forDifficulty(int, int, int, int)
+     */
+    public static LevelSpec forDifficulty(int baseHeight, int baseWidth, int maxSize, int difficulty,
+                                          LevelLayout layout) {
+        int extra = difficulty > BASE_DIFFICULTY ? (difficulty - BASE_DIFFICULTY) / 2 * 2 : 0;
+        int height = Math.max(baseHeight, Math.min(maxSize, baseHeight + extra));
+        int width = Math.max(baseWidth, Math.min(maxSize, baseWidth + extra));
+        LevelSpec spec = new LevelSpec(height, width);
+        spec.layout = layout;
+        double scale = (double) ((height - 2) * (width - 2)) / Math.max(1, (baseHeight - 2) * (baseWidth - 2));
+        int delta = difficulty - BASE_DIFFICULTY;
+        SpawnTable spawns = spec.spawns;
+        spawns.setCount(CellType.GOLD, scaled(5, scale));
+        spawns.setCount(CellType.TRAP, scaled(5 + Math.min(0, delta), scale));
+        spawns.setCount(CellType.MELEE_MUTANT, scaled(3 + Math.min(0, Math.floorDiv(delta, 2)), scale));
+        spawns.setCount(CellType.RANGED_MUTANT, scaled(1, scale));
+        spawns.setCount(CellType.HEALTH_POTION, scaled(Math.max(1, 2 - Math.floorDiv(delta, 4)), scale));
+        spawns.setWeight(CellType.TRAP, 6);
+        spawns.setWeight(CellType.MELEE_MUTANT, 3);
+        spawns.setWeight(CellType.RANGED_MUTANT, 2);
+        spawns.setRandomCount(scaled(Math.max(0, delta) * 11 / 6, scale));
+        spec.fitToBoard();
+        return spec;
+    }
+
+    private static int scaled(int count, double scale) {
+        return Math.max(0, (int) Math.round(count * scale));
+    }
+
+    /**
+     * Scales the counts down, keeping their proportions, so that items take up at most half of
+     * the free interior cells (a quarter when the layout has interior walls).
+     */
+    private void fitToBoard() {
+        int limit = ((height - 2) * (width - 2) - 2) / (layout == LevelLayout.OPEN ? 2 : 4);
+        int total = spawns.getTotalCount();
+        if (total > limit) {
+            spawns.scaleCounts(limit, total);
+        }
+    }
+
+    /**
+     * Returns the height of the level.
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the level.
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the wall layout of the level.
+     * @return the layout
+     */
+    public LevelLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Sets the wall layout of the level.
+     * @param layout the layout
+     */
+    public void setLayout(LevelLayout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Returns the spawn table of the level.
+     * @return the spawn table
+     */
+    public SpawnTable getSpawnTable() {
+        return spawns;
+    }
+
+    /**
+     * Returns how many cells of the given type are always placed (see {@link SpawnTable#getCount}).
+     * @param type the cell type
+     * @return the count
+     */
+    public int getCount(CellType type) {
+        return spawns.getCount(type);
+    }
+
+    /**
+     * Returns the total number of items and enemies in the level, including random spawns.
+     * @return the total count
+     */
+    public int getTotalCount() {
+        return spawns.getTotalCount();
+    }
+}
@@ -0,0 +1,252 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Carves mazes and rooms-and-corridors layouts out of solid wall with randomised Kruskal's
+ * algorithm.
+ * <p>
+ * Cells with odd row and column are the maze's nodes; the cells between two nodes are the walls
+ * that can be knocked down. Every such wall is visited once in random order and knocked down
+ * if the nodes on either side are not connected yet, which a union-find over a plain
+ * {@code int[]} answers in near-constant time. The result is a spanning tree: every open cell
+ * can reach every other, so the entry and the ladder are always connected. Rooms are opened on
+ * top of the finished maze, which can only join up more cells.
+ * <p>
+ * Visiting every wall of a big map in one random order would jump all over memory, so the nodes
+ * are split into square tiles: Kruskal's algorithm runs inside each tile with a union-find small
+ * enough to stay in cache, and then once more over the tiles, opening one door at a random place
+ * between neighbouring tiles that are not connected yet. Everything runs in time linear in the
+ * size of the map, and the only objects allocated are a few primitive arrays.
+ */
+public final class MazeGenerator {
+    private static final int MIN_ROOM = 3;
+    private static final int MAX_ROOM = 9;
+    // One room is attempted for each this many interior cells
+    private static final int CELLS_PER_ROOM = 150;
+    // Side of the square tiles of nodes carved one at a time
+    private static final int TILE = 32;
+
+    private MazeGenerator() {
+    }
+
+    /**
+     * Carves a layout into a map whose interior is solid {@link WallCell#INSTANCE}, opening cells
+     * with {@link EmptyCell#INSTANCE}. All open cells are connected. When the height or width is
+     * even, the last interior row or column has no maze nodes in it, so it is left open as a
+     * corridor.
+     * @param map the map, indexed [row][column]
+     * @param random the random number generator
+     * @param layout the layout to carve; {@link LevelLayout#OPEN} opens the whole interior
+     * @return the number of open interior cells
+     */
+    public static int carve(Cell[][] map, RandomGenerator random, LevelLayout layout) {
+        int height = map.length;
+        int width = map[0].length;
+        if (layout == LevelLayout.OPEN) {
+            for (int i = 1; i < height - 1; i++) {
+                Arrays.fill(map[i], 1, width - 1, EmptyCell.INSTANCE);
+            }
+            return (height - 2) * (width - 2);
+        }
+        // Nodes sit on odd rows and columns inside the boundary
+        int rows = (height - 1) / 2;
+        int cols = (width - 1) / 2;
+        for (int r = 0; r < rows; r++) {
+            Cell[] row = map[2 * r + 1];
+            for (int c = 0; c < cols; c++) {
+                row[2 * c + 1] = EmptyCell.INSTANCE;
+            }
+        }
+        int open = rows * cols + openCorridors(map, rows, cols);
+        if (rows == 0 || cols == 0) {
+            return open;
+        }
+        // A big map takes tens of millions of draws, so use a fast generator seeded from the caller's
+        SplittableRandom rng = new SplittableRandom(random.nextLong());
+        int tileRows = (rows + TILE - 1) / TILE;
+        int tileCols = (cols + TILE - 1) / TILE;
+        int[] parent = new int[TILE * TILE];
+        int[] edges = new int[2 * TILE * TILE];
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                carveTile(map, rng, parent, edges, tr * TILE, tc * TILE,
+                        Math.min(TILE, rows - tr * TILE), Math.min(TILE, cols - tc * TILE));
+            }
+        }
+        // A spanning tree has one edge fewer than it has nodes
+        open += rows * cols - 1;
+        joinTiles(map, rng, rows, cols, tileRows, tileCols);
+        if (layout == LevelLayout.ROOMS) {
+            open += carveRooms(map, rng, rows, cols);
+        }
+        return open;
+    }
+
+    /**
+     * Opens the last interior row and column when they hold no nodes, i.e. when the height or
+     * width is even.
+     * @return the number of cells opened
+     */
+    private static int openCorridors(Cell[][] map, int rows, int cols) {
+        int height = map.length;
+        int width = map[0].length;
+        int opened = 0;
+        if (2 * rows == height - 2) {
+            Arrays.fill(map[height - 2], 1, width - 1, EmptyCell.INSTANCE);
+            opened += width - 2;
+        }
+        if (2 * cols == width - 2) {
+            for (int i = 1; i < height - 1; i++) {
+                if (map[i][width - 2] != EmptyCell.INSTANCE) {
+                    map[i][width - 2] = EmptyCell.INSTANCE;
+                    opened++;
+                }
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Runs Kruskal's algorithm over the walls inside one tile of nodes, leaving all of its nodes
+     * connected.
+     */
+    private static void carveTile(Cell[][] map, SplittableRandom random, int[] parent, int[] edges,
+                                  int top, int left, int tileHeight, int tileWidth) {
+        // Nodes are numbered row by row within the tile. Each edge is a node and a direction:
+        // node * 2 for the wall to its right, + 1 for the wall below
+        int edgeCount = 0;
+        for (int r = 0; r < tileHeight; r++) {
+            for (int c = 0; c < tileWidth; c++) {
+                int node = r * TILE + c;
+                parent[node] = node;
+                if (c + 1 < tileWidth) {
+                    edges[edgeCount++] = node * 2;
+                }
+                if (r + 1 < tileHeight) {
+                    edges[edgeCount++] = node * 2 + 1;
+                }
+            }
+        }
+        // Visit edges in random order (Fisher-Yates), knocking down walls between unconnected nodes
+        for (int i = edgeCount - 1; i >= 0; i--) {
+            int k = random.nextInt(i + 1);
+            int edge = edges[k];
+            edges[k] = edges[i];
+            int node = edge >>> 1;
+            boolean down = (edge & 1) == 1;
+            if (union(parent, node, down ? node + TILE : node + 1)) {
+                openWall(map, top + node / TILE, left + node % TILE, down);
+            }
+        }
+    }
+
+    /**
+     * Runs Kruskal's algorithm over the tiles: each pair of neighbouring tiles, in random order,
+     * gets a door at a random place along their shared side if they are not connected yet.
+     */
+    private static void joinTiles(Cell[][] map, SplittableRandom random, int rows, int cols,
+                                  int tileRows, int tileCols) {
+        int[] parent = new int[tileRows * tileCols];
+        int[] edges = new int[2 * tileRows * tileCols];
+        int edgeCount = 0;
+        for (int tr = 0; tr < tileRows; tr++) {
+            for (int tc = 0; tc < tileCols; tc++) {
+                int tile = tr * tileCols + tc;
+                parent[tile] = tile;
+                if (tc + 1 < tileCols) {
+                    edges[edgeCount++] = tile * 2;
+                }
+                if (tr + 1 < tileRows) {
+                    edges[edgeCount++] = tile * 2 + 1;
+                }
+            }
+        }
+        for (int i = edgeCount - 1; i >= 0; i--) {
+            int k = random.nextInt(i + 1);
+            int edge = edges[k];
+            edges[k] = edges[i];
+            int tile = edge >>> 1;
+            boolean down = (edge & 1) == 1;
+            if (!union(parent, tile, down ? tile + tileCols : tile + 1)) {
+                continue;
+            }
+            int top = tile / tileCols * TILE;
+            int left = tile % tileCols * TILE;
+            if (down) {
+                openWall(map, top + TILE - 1, left + random.nextInt(Math.min(TILE, cols - left)), true);
+            } else {
+                openWall(map, top + random.nextInt(Math.min(TILE, rows - top)), left + TILE - 1, false);
+            }
+        }
+    }
+
+    /**
+     * Knocks down the wall below or to the right of the node at the given row and column of nodes.
+     */
+    private static void openWall(Cell[][] map, int r, int c, boolean down) {
+        if (down) {
+            map[2 * r + 2][2 * c + 1] = EmptyCell.INSTANCE;
+        } else {
+            map[2 * r + 1][2 * c + 2] = EmptyCell.INSTANCE;
+        }
+    }
+
+    /**
+     * Opens rectangular rooms aligned to the node grid. Rooms may overlap, which just makes bigger
+     * rooms, and may cut through corridors, which makes loops.
+     * @return the number of cells opened
+     */
+    private static int carveRooms(Cell[][] map, SplittableRandom random, int rows, int cols) {
+        int opened = 0;
+        int attempts = (2 * rows - 1) * (2 * cols - 1) / CELLS_PER_ROOM + 1;
+        for (int a = 0; a < attempts; a++) {
+            // Room size in nodes; a room of n nodes spans 2n - 1 cells
+            int roomRows = Math.min(rows, nodesFor(MIN_ROOM) + random.nextInt(nodesFor(MAX_ROOM) - nodesFor(MIN_ROOM) + 1));
+            int roomCols = Math.min(cols, nodesFor(MIN_ROOM) + random.nextInt(nodesFor(MAX_ROOM) - nodesFor(MIN_ROOM) + 1));
+            int top = random.nextInt(rows - roomRows + 1);
+            int left = random.nextInt(cols - roomCols + 1);
+            for (int i = 2 * top + 1; i <= 2 * (top + roomRows) - 1; i++) {
+                for (int j = 2 * left + 1; j <= 2 * (left + roomCols) - 1; j++) {
+                    if (map[i][j] != EmptyCell.INSTANCE) {
+                        map[i][j] = EmptyCell.INSTANCE;
+                        opened++;
+                    }
+                }
+            }
+        }
+        return opened;
+    }
+
+    private static int nodesFor(int cells) {
+        return (cells + 1) / 2;
+    }
+
+    /**
+     * Joins the sets holding two nodes.
+     * @return true if they were in different sets
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) {
+            return false;
+        }
+        // Random edge order keeps the trees shallow enough without union by rank
+        parent[rootA] = rootB;
+        return true;
+    }
+
+    /**
+     * Finds the root of a node's set, halving the path on the way up.
+     */
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+}
@@ -1,14 +1,10 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-
 /**
  * Represents a melee mutant cell in the dungeon. Damages the player and is removed when defeated.
  */
 public class MeleeMutantCell implements Cell {
+    private static final long serialVersionUID = 7425693789169071846L;
     private boolean defeated;
 
     public MeleeMutantCell() {
@@ -32,38 +28,40 @@ public class MeleeMutantCell implements Cell {
     @Override
     public void interact(Player player, GameEngine engine) {
         if (!defeated) {
-            player.decreaseHP(2);
-            player.addGold(2);
-            defeated = true;
-            engine.replaceCell(player.getX(), player.getY(), new EmptyCell());
+            engine.replaceCell(player.getX(), player.getY(), applyTo(player));
+            engine.scheduleEffect(TimedEffect.RESPAWN, player.getX(), player.getY(), engine.getLevel(), getType());
             engine.addStatus("You attacked a melee mutant and won. Lost 2 HP, gained 2 score.");
         }
     }
 
     /**
-     * Returns whether the cell is passable.
-     * @return true
+     * Defeats the mutant, which costs the player 2 HP and gives them 2 gold.
+     * @param player the player
+     * @return an empty cell
      */
     @Override
-    public boolean isPassable() {
-        return true;
+    public Cell applyTo(Player player) {
+        player.decreaseHP(2);
+        player.addGold(2);
+        defeated = true;
+        return EmptyCell.INSTANCE;
     }
 
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Returns the type of this cell.
+     * @return {@link CellType#MELEE_MUTANT}
      */
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        if (!defeated) {
-            javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(
-                    getClass().getResource("/malee-mutant.png").toExternalForm()
-            );
-            imageView.setFitWidth(40);
-            imageView.setFitHeight(40);
-            pane.getChildren().add(imageView);
-        }
-        return pane;
+    public CellType getType() {
+        return CellType.MELEE_MUTANT;
+    }
+
+    /**
+     * Returns whether the cell is passable.
+     * @return true
+     */
+    @Override
+    public boolean isPassable() {
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package dungeon.engine;
+
+/**
+ * A compact summary of a batch of moves applied with {@link GameEngine#applyMoves(GameEngine.Direction[])}.
+ */
+public class MoveBatchResult {
+    /**
+     * The state of the game once the batch has finished.
+     */
+    public enum Outcome { IN_PROGRESS, WON, LOST }
+
+    private final int requested;
+    private final int applied;
+    private final int blocked;
+    private final int goldGained;
+    private final int healthChange;
+    private final int levelsGained;
+    private final Outcome outcome;
+
+    /**
+     * Creates a new batch summary.
+     * @param requested the number of moves in the batch
+     * @param applied the number of moves that moved the player
+     * @param blocked the number of moves stopped by a wall or the board edge
+     * @param goldGained the gold collected during the batch
+     * @param healthChange the change in HP during the batch
+     * @param levelsGained the number of levels advanced during the batch
+     * @param outcome the state of the game after the batch
+     */
+    public MoveBatchResult(int requested, int applied, int blocked, int goldGained,
+                           int healthChange, int levelsGained, Outcome outcome) {
+        this.requested = requested;
+        this.applied = applied;
+        this.blocked = blocked;
+        this.goldGained = goldGained;
+        this.healthChange = healthChange;
+        this.levelsGained = levelsGained;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Returns the number of moves in the batch.
+     * @return the requested move count
+     */
+    public int getRequested() {
+        return requested;
+    }
+
+    /**
+     * Returns the number of moves that moved the player.
+     * @return the applied move count
+     */
+    public int getApplied() {
+        return applied;
+    }
+
+    /**
+     * Returns the number of moves stopped by a wall or the board edge.
+     * @return the blocked move count
+     */
+    public int getBlocked() {
+        return blocked;
+    }
+
+    /**
+     * Returns the number of moves that were never attempted because the game ended first.
+     * @return the skipped move count
+     */
+    public int getSkipped() {
+        return requested - applied - blocked;
+    }
+
+    /**
+     * Returns the gold collected during the batch.
+     * @return the gold gained
+     */
+    public int getGoldGained() {
+        return goldGained;
+    }
+
+    /**
+     * Returns the change in HP during the batch (negative if the player lost HP).
+     * @return the HP change
+     */
+    public int getHealthChange() {
+        return healthChange;
+    }
+
+    /**
+     * Returns the number of levels advanced during the batch.
+     * @return the levels gained
+     */
+    public int getLevelsGained() {
+        return levelsGained;
+    }
+
+    /**
+     * Returns the state of the game after the batch.
+     * @return the outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns a one line summary of the batch (e.g. "12 moves, 1 blocked, gold +4, HP -2").
+     * @return a string
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(applied).append(" moves");
+        if (blocked > 0) {
+            sb.append(", ").append(blocked).append(" blocked");
+        }
+        sb.append(", gold +").append(goldGained);
+        sb.append(", HP ").append(healthChange >= 0 ? "+" : "").append(healthChange);
+        if (levelsGained > 0) {
+            sb.append(", ").append(levelsGained).append(levelsGained == 1 ? " level" : " levels");
+        }
+        if (outcome != Outcome.IN_PROGRESS) {
+            sb.append(", ").append(outcome == Outcome.WON ? "won" : "lost");
+        }
+        return sb.toString();
+    }
+}
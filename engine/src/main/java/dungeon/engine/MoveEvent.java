@@ -0,0 +1,41 @@
+package dungeon.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for a single player move.
+ */
+@Name("dungeon.Move")
+@Label("Move")
+@Category({"MiniDungeon", "Engine"})
+@Description("A single player move, including the cell interaction and ranged attacks")
+class MoveEvent extends Event {
+    @Label("From Row")
+    int fromX;
+
+    @Label("From Column")
+    int fromY;
+
+    @Label("To Row")
+    int toX;
+
+    @Label("To Column")
+    int toY;
+
+    @Label("Moved")
+    @Description("False if the move was blocked by a wall or the board edge")
+    boolean moved;
+
+    @Label("Level")
+    int level;
+
+    @Label("Height")
+    int height;
+
+    @Label("Width")
+    int width;
+}
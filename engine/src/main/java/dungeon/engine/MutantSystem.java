@@ -0,0 +1,326 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * The mutants of one level when they are active (see {@link GameEngine#setActiveMutants}): each
+ * turn melee mutants chase and hit the player, ranged mutants shoot along rows and columns, and
+ * both wander about.
+ * <p>
+ * Mutants are kept as a struct of arrays (position, cooldown, kind) and updated in one
+ * loop over the live ones, so a turn costs time in proportion to the number of mutants, not the
+ * size of the map. A spatial hash from tile to mutant, an open-addressing table over plain
+ * {@code int[]}s, answers "which mutant is here?" for collisions and for the player's attacks.
+ * The mutant cells stay on the map as well, and are moved along with their mutant, so
+ * renderers see them as before.
+ */
+public class MutantSystem {
+    /** The damage a melee mutant does when it hits. */
+    public static final int MELEE_DAMAGE = 2;
+    /** The damage a ranged mutant does when it hits. */
+    public static final int RANGED_DAMAGE = 2;
+    /** How far a ranged mutant can shoot along a row or column. */
+    public static final int RANGED_RANGE = 2;
+    /** How close (in steps) the player must be for a melee mutant to give chase. */
+    public static final int CHASE_RANGE = 8;
+    // Turns a mutant waits after attacking before it can attack again
+    private static final int ATTACK_COOLDOWN = 1;
+    // A quarter of idle mutants take a random step each turn
+    private static final int WANDER_ONE_IN = 4;
+    private static final int EMPTY = -1;
+    private static final int[] ROW_STEP = {-1, 1, 0, 0};
+    private static final int[] COL_STEP = {0, 0, -1, 1};
+
+    private final int width;
+    private int count;
+    private int[] rows;
+    private int[] cols;
+    private int[] cooldown;
+    private boolean[] ranged;
+    private Cell[] cells;
+    // Spatial hash: tile index (row * width + column) to mutant slot, with linear probing
+    private int[] tileKeys;
+    private int[] tileSlots;
+    private int hashShift;
+
+    /**
+     * Creates an empty system for a map of the given width.
+     * @param width the width of the map
+     * @param capacity the number of mutants to make room for
+     */
+    public MutantSystem(int width, int capacity) {
+        this.width = width;
+        int size = Math.max(16, capacity);
+        rows = new int[size];
+        cols = new int[size];
+        cooldown = new int[size];
+        ranged = new boolean[size];
+        cells = new Cell[size];
+        resizeHash(size);
+    }
+
+    /**
+     * Collects the mutants on a map. This is the only step that looks at the whole map.
+     * @param map the map, indexed [row][column]
+     * @return the system
+     */
+    public static MutantSystem fromMap(Cell[][] map) {
+        MutantSystem system = new MutantSystem(map[0].length, 16);
+        for (int row = 0; row < map.length; row++) {
+            Cell[] line = map[row];
+            for (int col = 0; col < line.length; col++) {
+                CellType type = line[col].getType();
+                if (type == CellType.MELEE_MUTANT || type == CellType.RANGED_MUTANT) {
+                    system.add(row, col, line[col]);
+                }
+            }
+        }
+        return system;
+    }
+
+    /**
+     * Adds a mutant. Its cell should already be on the map at the given tile.
+     * @param row the row
+     * @param col the column
+     * @param cell the mutant's cell ({@link MeleeMutantCell} or {@link RangedMutantCell})
+     * @throws IllegalArgumentException if there is a mutant on that tile already
+     */
+    public void add(int row, int col, Cell cell) {
+        if (find(row, col) != EMPTY) {
+            throw new IllegalArgumentException("There is already a mutant at " + row + "," + col);
+        }
+        if (count == rows.length) {
+            int size = count * 2;
+            rows = Arrays.copyOf(rows, size);
+            cols = Arrays.copyOf(cols, size);
+            cooldown = Arrays.copyOf(cooldown, size);
+            ranged = Arrays.copyOf(ranged, size);
+            cells = Arrays.copyOf(cells, size);
+            resizeHash(size);
+        }
+        boolean isRanged = cell.getType() == CellType.RANGED_MUTANT;
+        rows[count] = row;
+        cols[count] = col;
+        cooldown[count] = 0;
+        ranged[count] = isRanged;
+        cells[count] = cell;
+        put(row * width + col, count);
+        count++;
+    }
+
+    /**
+     * Removes the mutant on a tile, e.g. when the player defeats it.
+     * @param row the row
+     * @param col the column
+     * @return true if there was a mutant there
+     */
+    public boolean remove(int row, int col) {
+        int slot = find(row, col);
+        if (slot == EMPTY) {
+            return false;
+        }
+        delete(row * width + col);
+        // Move the last mutant into the gap so the live ones stay packed
+        int last = --count;
+        if (slot != last) {
+            rows[slot] = rows[last];
+            cols[slot] = cols[last];
+            cooldown[slot] = cooldown[last];
+            ranged[slot] = ranged[last];
+            cells[slot] = cells[last];
+            put(rows[slot] * width + cols[slot], slot);
+        }
+        cells[last] = null;
+        return true;
+    }
+
+    /**
+     * Plays one turn for every mutant: attack the player if in reach, otherwise chase (melee
+     * mutants near the player) or wander. Mutants only step onto empty floor.
+     * @param engine the engine, for status messages
+     * @param map the map, indexed [row][column]
+     * @param random the random number generator
+     */
+    public void update(GameEngine engine, Cell[][] map, RandomGenerator random) {
+        Player player = engine.getPlayer();
+        int px = player.getX();
+        int py = player.getY();
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            int col = cols[i];
+            int dr = px - row;
+            int dc = py - col;
+            int distance = Math.abs(dr) + Math.abs(dc);
+            if (cooldown[i] > 0) {
+                cooldown[i]--;
+            } else if (ranged[i] ? (dr == 0 || dc == 0) && distance <= RANGED_RANGE : distance == 1) {
+                attack(i, engine, player, random);
+                continue;
+            }
+            if (!ranged[i] && distance <= CHASE_RANGE) {
+                // Step along the longer axis first, then the other one
+                boolean rowFirst = Math.abs(dr) >= Math.abs(dc);
+                if (!(rowFirst ? tryMove(i, engine, map, Integer.signum(dr), 0, px, py)
+                        : tryMove(i, engine, map, 0, Integer.signum(dc), px, py))) {
+                    if (rowFirst) {
+                        tryMove(i, engine, map, 0, Integer.signum(dc), px, py);
+                    } else {
+                        tryMove(i, engine, map, Integer.signum(dr), 0, px, py);
+                    }
+                }
+            } else if (random.nextInt(WANDER_ONE_IN) == 0) {
+                int direction = random.nextInt(4);
+                tryMove(i, engine, map, ROW_STEP[direction], COL_STEP[direction], px, py);
+            }
+        }
+    }
+
+    private void attack(int i, GameEngine engine, Player player, RandomGenerator random) {
+        cooldown[i] = ATTACK_COOLDOWN;
+        if (!ranged[i]) {
+            player.decreaseHP(MELEE_DAMAGE);
+            engine.addStatus("A melee mutant hit you and you lost 2 HP.");
+        } else if (random.nextBoolean()) {
+            player.decreaseHP(RANGED_DAMAGE);
+            engine.addStatus("A ranged mutant attacked and you lost 2 HP.");
+        } else {
+            engine.addStatus("A ranged mutant attacked, but missed.");
+        }
+    }
+
+    /**
+     * Moves a mutant one tile if the tile is empty floor with no mutant or player on it.
+     * @return true if it moved
+     */
+    private boolean tryMove(int i, GameEngine engine, Cell[][] map, int dr, int dc, int px, int py) {
+        if (dr == 0 && dc == 0) {
+            return false;
+        }
+        int row = rows[i] + dr;
+        int col = cols[i] + dc;
+        if (row < 0 || row >= map.length || col < 0 || col >= width || (row == px && col == py)
+                || find(row, col) != EMPTY || map[row][col].getType() != CellType.EMPTY) {
+            return false;
+        }
+        delete(rows[i] * width + cols[i]);
+        engine.replaceCell(rows[i], cols[i], EmptyCell.INSTANCE);
+        rows[i] = row;
+        cols[i] = col;
+        engine.replaceCell(row, col, cells[i]);
+        put(row * width + col, i);
+        return true;
+    }
+
+    /**
+     * Returns the slot of the mutant on a tile.
+     * @param row the row
+     * @param col the column
+     * @return the slot, from 0 to {@link #size()} - 1, or -1 if there is no mutant there
+     */
+    public int find(int row, int col) {
+        int key = row * width + col;
+        int mask = tileKeys.length - 1;
+        for (int h = home(key); tileKeys[h] != EMPTY; h = (h + 1) & mask) {
+            if (tileKeys[h] == key) {
+                return tileSlots[h];
+            }
+        }
+        return EMPTY;
+    }
+
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> hashShift;
+    }
+
+    private void put(int key, int slot) {
+        int mask = tileKeys.length - 1;
+        int h = home(key);
+        while (tileKeys[h] != EMPTY && tileKeys[h] != key) {
+            h = (h + 1) & mask;
+        }
+        tileKeys[h] = key;
+        tileSlots[h] = slot;
+    }
+
+    /**
+     * Removes a key, shifting later entries of its probe run back so lookups never stop early.
+     */
+    private void delete(int key) {
+        int mask = tileKeys.length - 1;
+        int h = home(key);
+        while (tileKeys[h] != key) {
+            h = (h + 1) & mask;
+        }
+        int gap = h;
+        for (int next = (gap + 1) & mask; tileKeys[next] != EMPTY; next = (next + 1) & mask) {
+            int want = home(tileKeys[next]);
+            // The entry can fill the gap unless its home lies cyclically between the gap and it
+            boolean stays = gap <= next ? gap < want && want <= next : gap < want || want <= next;
+            if (!stays) {
+                tileKeys[gap] = tileKeys[next];
+                tileSlots[gap] = tileSlots[next];
+                gap = next;
+            }
+        }
+        tileKeys[gap] = EMPTY;
+    }
+
+    /**
+     * Rebuilds the spatial hash with room for the given number of mutants at most half full.
+     */
+    private void resizeHash(int capacity) {
+        int bits = 32 - Integer.numberOfLeadingZeros(capacity * 2 - 1);
+        tileKeys = new int[1 << bits];
+        tileSlots = new int[1 << bits];
+        Arrays.fill(tileKeys, EMPTY);
+        hashShift = 32 - bits;
+        for (int i = 0; i < count; i++) {
+            put(rows[i] * width + cols[i], i);
+        }
+    }
+
+    /**
+     * Returns the number of live mutants.
+     * @return the count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the row of a mutant.
+     * @param slot the slot, from 0 to {@link #size()} - 1
+     * @return the row
+     */
+    public int getRow(int slot) {
+        return rows[slot];
+    }
+
+    /**
+     * Returns the column of a mutant.
+     * @param slot the slot, from 0 to {@link #size()} - 1
+     * @return the column
+     */
+    public int getCol(int slot) {
+        return cols[slot];
+    }
+
+    /**
+     * Returns how many turns a mutant must wait before it can attack again.
+     * @param slot the slot, from 0 to {@link #size()} - 1
+     * @return the cooldown in turns
+     */
+    public int getCooldown(int slot) {
+        return cooldown[slot];
+    }
+
+    /**
+     * Returns whether a mutant is a ranged mutant.
+     * @param slot the slot, from 0 to {@link #size()} - 1
+     * @return true for a ranged mutant, false for a melee mutant
+     */
+    public boolean isRanged(int slot) {
+        return ranged[slot];
+    }
+}
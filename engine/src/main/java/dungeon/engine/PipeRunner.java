@@ -0,0 +1,176 @@
+package dungeon.engine;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+/**
+ * Non-interactive text mode: streams move scripts through the engine without printing the map.
+ * Each input line is one game, written as move characters (u, d, l, r; whitespace is ignored).
+ * Blank lines are skipped.
+ * For every game a single machine-readable result line is written, for example
+ * {@code game=1 result=LOST moves=14 blocked=2 skipped=3 gold=4 hp=0 steps=14 level=1}.
+ * Throughput is reported on standard error once the input ends.
+ * <p>
+ * Input is read straight from a byte buffer and decoded into a reusable move array, so parsing
+ * does not allocate.
+ */
+public class PipeRunner {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final GameEngine.Direction[] MOVES_BY_BYTE = new GameEngine.Direction[256];
+
+    static {
+        for (GameEngine.Direction dir : GameEngine.Direction.values()) {
+            char c = dir.name().charAt(0);
+            MOVES_BY_BYTE[Character.toLowerCase(c)] = dir;
+            MOVES_BY_BYTE[c] = dir;
+        }
+    }
+
+    private final int boardSize;
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder(128);
+    private GameEngine.Direction[] moves = new GameEngine.Direction[1024];
+    private int moveCount;
+    private int invalid;
+    private long games;
+    private long totalMoves;
+    private EngineMetrics metrics;
+
+    /**
+     * Creates a runner that plays each game on a square board.
+     * @param boardSize the height and width of the board
+     */
+    public PipeRunner(int boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    /**
+     * Sets the metrics that every game records into.
+     * @param metrics the metrics, or null for none
+     */
+    public void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Plays every game in the input and writes one result line per game.
+     * @param in the move scripts, one game per line
+     * @param out where result lines are written
+     * @throws IOException if reading or writing fails
+     */
+    public void run(InputStream in, Writer out) throws IOException {
+        int read;
+        while ((read = in.read(input)) > 0) {
+            for (int i = 0; i < read; i++) {
+                byte b = input[i];
+                if (b == '\n') {
+                    // Blank lines are not games
+                    if (moveCount > 0 || invalid > 0) {
+                        playGame(out);
+                    }
+                    continue;
+                }
+                GameEngine.Direction dir = MOVES_BY_BYTE[b & 0xFF];
+                if (dir != null) {
+                    if (moveCount == moves.length) {
+                        GameEngine.Direction[] bigger = new GameEngine.Direction[moves.length * 2];
+                        System.arraycopy(moves, 0, bigger, 0, moveCount);
+                        moves = bigger;
+                    }
+                    moves[moveCount++] = dir;
+                } else if (b != ' ' && b != '\t' && b != '\r') {
+                    invalid++;
+                }
+            }
+        }
+        if (moveCount > 0 || invalid > 0) {
+            // Last line without a trailing newline
+            playGame(out);
+        }
+        out.flush();
+    }
+
+    private void playGame(Writer out) throws IOException {
+        GameEngine engine = new GameEngine(boardSize, boardSize, LevelSpec.BASE_DIFFICULTY,
+                new SplittableRandom(), metrics);
+        engine.setStatusEcho(false);
+        MoveBatchResult result = engine.applyMoves(moves, moveCount);
+        games++;
+        totalMoves += result.getApplied() + result.getBlocked();
+        Player player = engine.getPlayer();
+        line.setLength(0);
+        line.append("game=").append(games)
+                .append(" result=").append(result.getOutcome())
+                .append(" moves=").append(result.getApplied())
+                .append(" blocked=").append(result.getBlocked())
+                .append(" skipped=").append(result.getSkipped())
+                .append(" gold=").append(player.getGold())
+                .append(" hp=").append(player.getHealth())
+                .append(" steps=").append(player.getSteps())
+                .append(" level=").append(engine.getLevel());
+        if (invalid > 0) {
+            line.append(" invalid=").append(invalid);
+        }
+        line.append('\n');
+        out.append(line);
+        moveCount = 0;
+        invalid = 0;
+    }
+
+    /**
+     * Returns the number of games played so far.
+     * @return the game count
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of moves attempted so far (moves skipped after a game ended are not counted).
+     * @return the move count
+     */
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /**
+     * Runs pipe mode. Usage: {@code [--size N] [--metrics text|json] [file]}; reads standard input
+     * when no file is given. With {@code --metrics}, engine metrics are printed to standard error at the end.
+     * @param args the command line arguments
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        int size = 10;
+        String file = null;
+        String metricsFormat = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--size") && i + 1 < args.length) {
+                size = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFormat = args[++i];
+            } else {
+                file = args[i];
+            }
+        }
+        PipeRunner runner = new PipeRunner(size);
+        EngineMetrics metrics = metricsFormat == null ? null : new EngineMetrics();
+        runner.setMetrics(metrics);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), BUFFER_SIZE);
+        long start = System.nanoTime();
+        try (InputStream in = file == null ? System.in : new FileInputStream(file)) {
+            runner.run(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("games=%d moves=%d seconds=%.3f moves/s=%.0f%n",
+                runner.getGames(), runner.getTotalMoves(), seconds,
+                seconds > 0 ? runner.getTotalMoves() / seconds : 0.0);
+        if (metrics != null) {
+            System.err.println(metricsFormat.equals("json") ? metrics.toJson() : metrics.toText());
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import java.io.Serializable;
 
 public class Player implements Cell, Serializable {
@@ -89,19 +86,12 @@ public class Player implements Cell, Serializable {
     }
 
     @Override
-    public char getSymbol() {
-        return 'P'; // 'P' for Player
+    public CellType getType() {
+        return CellType.PLAYER;
     }
 
     @Override
-    public javafx.scene.Node getNode() {
-        StackPane stackPane = new StackPane();
-        javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(
-                getClass().getResource("/player.png").toExternalForm()
-        );
-        imageView.setFitWidth(40);
-        imageView.setFitHeight(40);
-        stackPane.getChildren().add(imageView);
-        return stackPane;
+    public char getSymbol() {
+        return 'P'; // 'P' for Player
     }
 }
\ No newline at end of file
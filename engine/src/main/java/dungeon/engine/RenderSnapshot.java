@@ -0,0 +1,153 @@
+package dungeon.engine;
+
+/**
+ * An immutable copy of everything the UI needs to draw one frame of the game.
+ * Snapshots are built on the engine thread by {@link GameLoop} and can be read from any thread.
+ */
+public final class RenderSnapshot {
+    private final long version;
+    private final int gameId;
+    private final int height;
+    private final int width;
+    private final char[] symbols;
+    private final int playerX;
+    private final int playerY;
+    private final int health;
+    private final int maxHealth;
+    private final int gold;
+    private final int steps;
+    private final int level;
+    private final int difficulty;
+    private final boolean gameOver;
+    private final boolean won;
+
+    private RenderSnapshot(long version, int gameId, GameEngine engine) {
+        this.version = version;
+        this.gameId = gameId;
+        this.height = engine.getHeight();
+        this.width = engine.getWidth();
+        this.symbols = new char[height * width];
+        Cell[][] map = engine.getMap();
+        for (int row = 0; row < height; row++) {
+            Cell[] cells = map[row];
+            int offset = row * width;
+            for (int col = 0; col < width; col++) {
+                symbols[offset + col] = cells[col].getSymbol();
+            }
+        }
+        Player player = engine.getPlayer();
+        this.playerX = player.getX();
+        this.playerY = player.getY();
+        this.health = player.getHealth();
+        this.maxHealth = player.getMaxHP();
+        this.gold = player.getGold();
+        this.steps = player.getSteps();
+        this.level = engine.getLevel();
+        this.difficulty = engine.getDifficulty();
+        this.gameOver = engine.isGameOver();
+        this.won = engine.hasWon();
+    }
+
+    /**
+     * Copies the current state of the engine. Must be called on the thread that owns the engine.
+     * @param engine the engine to copy
+     * @param version the snapshot version (increases with every published snapshot)
+     * @param gameId the id of the game the engine belongs to (changes on new game and load)
+     * @return the snapshot
+     */
+    public static RenderSnapshot capture(GameEngine engine, long version, int gameId) {
+        return new RenderSnapshot(version, gameId, engine);
+    }
+
+    /**
+     * Returns the snapshot version. A newer snapshot always has a higher version.
+     * @return the version
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Returns the id of the game this snapshot belongs to.
+     * @return the game id
+     */
+    public int getGameId() { return gameId; }
+
+    /**
+     * Returns the height of the board.
+     * @return the height
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * Returns the width of the board.
+     * @return the width
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Returns the symbol of the cell at the given position (see {@link Cell#getSymbol()}).
+     * @param row the row
+     * @param col the column
+     * @return the cell symbol
+     */
+    public char getSymbol(int row, int col) { return symbols[row * width + col]; }
+
+    /**
+     * Returns the player's row.
+     * @return the row
+     */
+    public int getPlayerX() { return playerX; }
+
+    /**
+     * Returns the player's column.
+     * @return the column
+     */
+    public int getPlayerY() { return playerY; }
+
+    /**
+     * Returns the player's HP.
+     * @return the HP
+     */
+    public int getHealth() { return health; }
+
+    /**
+     * Returns the player's maximum HP.
+     * @return the maximum HP
+     */
+    public int getMaxHealth() { return maxHealth; }
+
+    /**
+     * Returns the player's gold (which is also the score).
+     * @return the gold
+     */
+    public int getGold() { return gold; }
+
+    /**
+     * Returns the number of steps the player has taken.
+     * @return the steps
+     */
+    public int getSteps() { return steps; }
+
+    /**
+     * Returns the current level.
+     * @return the level
+     */
+    public int getLevel() { return level; }
+
+    /**
+     * Returns the current difficulty.
+     * @return the difficulty
+     */
+    public int getDifficulty() { return difficulty; }
+
+    /**
+     * Returns whether the game is over.
+     * @return true if the game is over
+     */
+    public boolean isGameOver() { return gameOver; }
+
+    /**
+     * Returns whether the player has won.
+     * @return true if the player has won
+     */
+    public boolean hasWon() { return won; }
+}
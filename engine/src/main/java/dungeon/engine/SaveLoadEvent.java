@@ -0,0 +1,34 @@
+package dungeon.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for saving or loading a game.
+ */
+@Name("dungeon.SaveLoad")
+@Label("Save/Load")
+@Category({"MiniDungeon", "Persistence"})
+class SaveLoadEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("File")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Height")
+    int height;
+
+    @Label("Width")
+    int width;
+
+    @Label("Success")
+    boolean success;
+}
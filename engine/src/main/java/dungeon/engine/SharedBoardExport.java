@@ -0,0 +1,166 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Mirrors the board of a game into a memory-mapped file, so other processes can read the live
+ * game without it being serialised or sent over a socket. Attach it with
+ * {@link GameEngine#setBoardObserver}; after that only the cells that change are written.
+ * <p>
+ * The file is little-endian:
+ * <pre>
+ *  0  long  sequence (odd while an update is being written)
+ *  8  int   format ({@link #FORMAT})
+ * 12  int   height
+ * 16  int   width
+ * 20  int   player row
+ * 24  int   player column
+ * 28  int   HP
+ * 32  int   gold
+ * 36  int   steps
+ * 40  int   level
+ * 44  int   flags (1 = game over, 2 = won)
+ * 64  byte[height * width]  the {@link CellType} code of each cell, row by row
+ * </pre>
+ * The sequence works as a seqlock: a reader reads it, copies what it needs, then reads it
+ * again, and the copy is consistent if both reads were the same even number. The file grows
+ * when a bigger level starts, so a reader should remap it when height times width no longer
+ * fits.
+ */
+public class SharedBoardExport implements BoardObserver, AutoCloseable {
+    /** The version of the file layout. */
+    public static final int FORMAT = 1;
+    /** The offset of the first cell code. */
+    public static final int HEADER = 64;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long sequence;
+    private boolean writing;
+    private int width;
+
+    /**
+     * Creates (or overwrites) the file.
+     * @param file the file
+     * @throws IOException if the file can't be created
+     */
+    public SharedBoardExport(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        map(HEADER);
+        buffer.putInt(8, FORMAT);
+    }
+
+    @Override
+    public void levelStarted(GameEngine engine) {
+        boolean nested = writing;
+        if (!nested) {
+            begin();
+        }
+        int height = engine.getHeight();
+        width = engine.getWidth();
+        if (buffer.capacity() < HEADER + height * width) {
+            map(HEADER + height * width);
+        }
+        buffer.putInt(12, height);
+        buffer.putInt(16, width);
+        Cell[][] map = engine.getMap();
+        int index = HEADER;
+        for (int row = 0; row < height; row++) {
+            Cell[] cells = map[row];
+            for (int col = 0; col < width; col++) {
+                buffer.put(index++, (byte) cells[col].getType().ordinal());
+            }
+        }
+        writeStats(engine);
+        if (!nested) {
+            end();
+        }
+    }
+
+    @Override
+    public void cellChanged(int row, int col, Cell cell) {
+        boolean nested = writing;
+        if (!nested) {
+            begin();
+        }
+        buffer.put(HEADER + row * width + col, (byte) cell.getType().ordinal());
+        if (!nested) {
+            end();
+        }
+    }
+
+    @Override
+    public void moveStarted() {
+        begin();
+    }
+
+    @Override
+    public void moveFinished(GameEngine engine) {
+        writeStats(engine);
+        end();
+    }
+
+    private void writeStats(GameEngine engine) {
+        Player player = engine.getPlayer();
+        buffer.putInt(20, player.getX());
+        buffer.putInt(24, player.getY());
+        buffer.putInt(28, player.getHealth());
+        buffer.putInt(32, player.getGold());
+        buffer.putInt(36, player.getSteps());
+        buffer.putInt(40, engine.getLevel());
+        buffer.putInt(44, (engine.isGameOver() ? 1 : 0) | (engine.hasWon() ? 2 : 0));
+    }
+
+    /**
+     * Makes the sequence odd, so readers know an update is under way.
+     */
+    private void begin() {
+        writing = true;
+        LONGS.setOpaque(buffer, 0, ++sequence);
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Makes the sequence even again once everything written since {@link #begin()} is visible.
+     */
+    private void end() {
+        LONGS.setRelease(buffer, 0, ++sequence);
+        writing = false;
+    }
+
+    private void map(int size) {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the sequence number last written.
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Closes the file. The engine should no longer be observed by this export.
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
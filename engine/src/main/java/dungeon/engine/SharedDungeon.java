@@ -0,0 +1,255 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One large dungeon shared by many players, whose moves may come from different threads.
+ * <p>
+ * The map is divided into square regions of {@link #REGION_SIZE} tiles, and each region is
+ * guarded by one of a fixed number of striped locks. A move holds the locks of the region the
+ * player leaves and the region they enter, taken in stripe order so two moves can never wait
+ * for each other, and the interaction with the tile entered happens under the same lock. So
+ * two players can't pick up the same gold or defeat the same mutant, and players spread out
+ * over the map rarely contend for a lock. Two players can't stand on the same tile, and a
+ * player who dies leaves theirs free.
+ * <p>
+ * Cells affect the player through {@link Cell#applyTo}, by the same rules as in {@link GameEngine}
+ * (gold, traps, potions and mutants) but without timed effects; reaching the ladder or the exit
+ * takes a player out of the game. Mutants don't act on their own here.
+ */
+public class SharedDungeon {
+    /** The height and width of a region, in tiles. */
+    public static final int REGION_SIZE = 16;
+    private static final int REGION_BITS = 4;
+    private static final int NOBODY = -1;
+
+    private final Cell[][] map;
+    private final int height;
+    private final int width;
+    private final int regionCols;
+    private final ReentrantLock[] locks;
+    private final int stripeMask;
+    // The player on each tile, guarded by the tile's region lock
+    private final int[] occupants;
+    // Copied on write, so moves can read it without locking
+    private volatile Seat[] seats = new Seat[0];
+
+    /**
+     * A player and whether they have left the game. Moves of the player lock the seat.
+     */
+    private static class Seat {
+        final Player player;
+        boolean finished;
+
+        Seat(Player player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * Creates a dungeon with the default items for its size.
+     * @param size the height and width of the dungeon
+     * @param seed the seed the dungeon is generated from
+     */
+    public SharedDungeon(int size, long seed) {
+        this(LevelSpec.forDifficulty(size, size, size, LevelSpec.BASE_DIFFICULTY), seed);
+    }
+
+    /**
+     * Creates a dungeon.
+     * @param spec the size, layout and items of the dungeon
+     * @param seed the seed the dungeon is generated from
+     */
+    public SharedDungeon(LevelSpec spec, long seed) {
+        Level level = LevelGenerator.generate(spec, 1, LevelSpec.BASE_DIFFICULTY, seed);
+        map = level.getCells();
+        height = level.getHeight();
+        width = level.getWidth();
+        regionCols = (width + REGION_SIZE - 1) >> REGION_BITS;
+        int regions = ((height + REGION_SIZE - 1) >> REGION_BITS) * regionCols;
+        // Enough stripes that players on different regions seldom share one
+        int wanted = Math.max(1, Math.min(regions, 16 * Runtime.getRuntime().availableProcessors()));
+        int stripes = Integer.highestOneBit(wanted * 2 - 1);
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        stripeMask = stripes - 1;
+        occupants = new int[height * width];
+        Arrays.fill(occupants, NOBODY);
+    }
+
+    /**
+     * Adds a player on the given tile.
+     * @param row the row
+     * @param col the column
+     * @return the id of the player
+     * @throws IllegalArgumentException if the tile can't be walked on or someone is there already
+     */
+    public synchronized int addPlayer(int row, int col) {
+        ReentrantLock lock = lockFor(row, col);
+        lock.lock();
+        try {
+            if (!map[row][col].isPassable() || occupants[row * width + col] != NOBODY) {
+                throw new IllegalArgumentException("Tile " + row + "," + col + " is not free");
+            }
+            int id = seats.length;
+            Seat[] grown = Arrays.copyOf(seats, id + 1);
+            grown[id] = new Seat(new Player(row, col));
+            occupants[row * width + col] = id;
+            seats = grown;
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a player one tile and lets them interact with the tile.
+     * @param id the id of the player
+     * @param dir the direction to move
+     * @return true if the player moved, false if the way was blocked (by a wall or another
+     *         player) or the player is out of the game
+     */
+    public boolean movePlayer(int id, GameEngine.Direction dir) {
+        Seat seat = seats[id];
+        Player player = seat.player;
+        // Moves of one player are made one at a time, even from different threads
+        synchronized (seat) {
+            if (seat.finished || player.isDead()) {
+                return false;
+            }
+            int row = player.getX();
+            int col = player.getY();
+            int newRow = row + dir.getRowDelta();
+            int newCol = col + dir.getColDelta();
+            if (newRow < 0 || newRow >= height || newCol < 0 || newCol >= width) {
+                return false;
+            }
+            int from = stripe(row, col);
+            int to = stripe(newRow, newCol);
+            ReentrantLock first = locks[Math.min(from, to)];
+            ReentrantLock second = locks[Math.max(from, to)];
+            first.lock();
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                int target = newRow * width + newCol;
+                if (!map[newRow][newCol].isPassable() || occupants[target] != NOBODY) {
+                    return false;
+                }
+                occupants[row * width + col] = NOBODY;
+                occupants[target] = id;
+                player.setX(newRow);
+                player.setY(newCol);
+                player.incrementSteps();
+                interact(seat, newRow, newCol);
+                if (player.isDead()) {
+                    // A dead player no longer blocks the tile
+                    occupants[target] = NOBODY;
+                }
+                return true;
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+                first.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies the tile's effect to the player. Called with the tile's region locked.
+     */
+    private void interact(Seat seat, int row, int col) {
+        Cell cell = map[row][col];
+        CellType type = cell.getType();
+        if (type == CellType.LADDER || type == CellType.EXIT) {
+            seat.finished = true;
+            occupants[row * width + col] = NOBODY;
+        } else {
+            map[row][col] = cell.applyTo(seat.player);
+        }
+    }
+
+    private int stripe(int row, int col) {
+        int region = (row >> REGION_BITS) * regionCols + (col >> REGION_BITS);
+        // Spread neighbouring regions over different stripes
+        return (region * 0x9E3779B9 >>> 16) & stripeMask;
+    }
+
+    private ReentrantLock lockFor(int row, int col) {
+        return locks[stripe(row, col)];
+    }
+
+    /**
+     * Returns a player.
+     * @param id the id of the player
+     * @return the player
+     */
+    public Player getPlayer(int id) {
+        return seats[id].player;
+    }
+
+    /**
+     * Returns the number of players added.
+     * @return the count
+     */
+    public int getPlayerCount() {
+        return seats.length;
+    }
+
+    /**
+     * Returns whether a player has left the game by reaching the ladder or the exit.
+     * @param id the id of the player
+     * @return true if the player has left
+     */
+    public boolean hasFinished(int id) {
+        Seat seat = seats[id];
+        synchronized (seat) {
+            return seat.finished;
+        }
+    }
+
+    /**
+     * Returns the id of the player on a tile.
+     * @param row the row
+     * @param col the column
+     * @return the id, or -1 if nobody is there
+     */
+    public int getOccupant(int row, int col) {
+        ReentrantLock lock = lockFor(row, col);
+        lock.lock();
+        try {
+            return occupants[row * width + col];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the map. Cells may be replaced by moves on other threads while it is read.
+     * @return the map, indexed [row][column]
+     */
+    public Cell[][] getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the height of the dungeon.
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the dungeon.
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+}
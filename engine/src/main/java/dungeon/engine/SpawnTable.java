@@ -0,0 +1,192 @@
+package dungeon.engine;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * The spawn table of a level. Each {@link CellType} has a fixed count, the number of cells of
+ * that type always placed, and a weight. On top of the fixed counts, {@link #getRandomCount()}
+ * more cells are placed with types drawn in proportion to their weights.
+ * <p>
+ * Drawing a type uses Walker's alias method (built with Vose's algorithm), so it costs one
+ * random index and one random double however many cell types have a weight.
+ */
+public class SpawnTable {
+    private final int[] counts = new int[CellType.count()];
+    private final double[] weights = new double[CellType.count()];
+    private int randomCount;
+
+    // Alias tables, rebuilt on the next draw after a weight changes
+    private CellType[] types;
+    private double[] probability;
+    private int[] alias;
+
+    /**
+     * Returns the number of cells of the given type that are always placed.
+     * @param type the cell type
+     * @return the count
+     */
+    public int getCount(CellType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * Sets the number of cells of the given type that are always placed.
+     * @param type the cell type
+     * @param count the count
+     */
+    public void setCount(CellType type, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        counts[type.ordinal()] = count;
+    }
+
+    /**
+     * Returns the weight of a cell type when drawing random spawns.
+     * @param type the cell type
+     * @return the weight
+     */
+    public double getWeight(CellType type) {
+        return weights[type.ordinal()];
+    }
+
+    /**
+     * Sets the weight of a cell type when drawing random spawns. A weight of 0 means the type is
+     * never drawn.
+     * @param type the cell type
+     * @param weight the weight
+     */
+    public void setWeight(CellType type, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("weight must be a finite number of at least 0");
+        }
+        weights[type.ordinal()] = weight;
+        types = null;
+    }
+
+    /**
+     * Returns the number of cells placed with randomly drawn types.
+     * @return the random spawn count
+     */
+    public int getRandomCount() {
+        return randomCount;
+    }
+
+    /**
+     * Sets the number of cells placed with randomly drawn types.
+     * @param randomCount the random spawn count
+     */
+    public void setRandomCount(int randomCount) {
+        if (randomCount < 0) {
+            throw new IllegalArgumentException("randomCount must not be negative");
+        }
+        this.randomCount = randomCount;
+    }
+
+    /**
+     * Returns the total number of cells placed: the fixed counts plus the random spawns.
+     * @return the total count
+     */
+    public int getTotalCount() {
+        int total = randomCount;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Scales the fixed counts and random spawn count down by the same factor, rounding down.
+     * @param numerator the numerator of the factor
+     * @param denominator the denominator of the factor
+     */
+    void scaleCounts(int numerator, int denominator) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = (int) ((long) counts[i] * numerator / denominator);
+        }
+        randomCount = (int) ((long) randomCount * numerator / denominator);
+    }
+
+    /**
+     * Draws a cell type in proportion to the weights.
+     * @param random the random number generator
+     * @return the cell type
+     * @throws IllegalStateException if no type has a weight
+     */
+    public CellType sample(RandomGenerator random) {
+        if (types == null) {
+            buildAliasTable();
+        }
+        int i = random.nextInt(types.length);
+        return random.nextDouble() < probability[i] ? types[i] : types[alias[i]];
+    }
+
+    /**
+     * Builds the alias table with Vose's algorithm: each column holds its own type with some
+     * probability and an alias type for the rest, so every column has the same total weight.
+     */
+    private void buildAliasTable() {
+        int n = 0;
+        double total = 0;
+        for (double weight : weights) {
+            if (weight > 0) {
+                n++;
+                total += weight;
+            }
+        }
+        if (n == 0) {
+            throw new IllegalStateException("No cell type has a spawn weight");
+        }
+        CellType[] columnTypes = new CellType[n];
+        double[] scaled = new double[n];
+        for (int i = 0, column = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                columnTypes[column] = CellType.fromCode(i);
+                scaled[column] = weights[i] * n / total;
+                column++;
+            }
+        }
+        double[] columnProbability = new double[n];
+        int[] columnAlias = new int[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            columnProbability[less] = scaled[less];
+            columnAlias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1 up to rounding error
+        while (largeCount > 0) {
+            columnProbability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            columnProbability[small[--smallCount]] = 1.0;
+        }
+        probability = columnProbability;
+        alias = columnAlias;
+        types = columnTypes;
+    }
+
+    @Override
+    public String toString() {
+        return "SpawnTable{counts=" + Arrays.toString(counts) + ", weights=" + Arrays.toString(weights)
+                + ", randomCount=" + randomCount + "}";
+    }
+}
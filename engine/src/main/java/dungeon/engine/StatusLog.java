@@ -0,0 +1,131 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A bounded log of status messages backed by a ring buffer.
+ * Once the log is full, adding a message drops the oldest one, so adding never grows the log
+ * or allocates. As a {@link java.util.List} it shows the retained messages, oldest first.
+ * <p>
+ * Every message also has a sequence number (0 for the first message ever added), so readers can
+ * keep a cursor with {@link #getTotalCount()} and {@link #getBySequence(long)} that stays valid
+ * as old messages are dropped.
+ */
+public class StatusLog extends AbstractList<String> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String[] messages;
+    private int head;
+    private int size;
+    private long totalCount;
+
+    /**
+     * Creates an empty log.
+     * @param capacity the number of messages kept
+     */
+    public StatusLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.messages = new String[capacity];
+    }
+
+    /**
+     * Creates a log holding the last {@code capacity} messages of an existing list.
+     * @param capacity the number of messages kept
+     * @param existing the messages to copy, oldest first
+     */
+    public StatusLog(int capacity, Collection<String> existing) {
+        this(capacity);
+        for (String message : existing) {
+            add(message);
+        }
+    }
+
+    /**
+     * Adds a message, dropping the oldest one if the log is full.
+     * @param message the message
+     * @return true
+     */
+    @Override
+    public boolean add(String message) {
+        int tail = head + size;
+        if (tail >= messages.length) {
+            tail -= messages.length;
+        }
+        messages[tail] = message;
+        if (size == messages.length) {
+            head = head + 1 == messages.length ? 0 : head + 1;
+        } else {
+            size++;
+        }
+        totalCount++;
+        return true;
+    }
+
+    /**
+     * Returns a retained message.
+     * @param index the index, where 0 is the oldest retained message
+     * @return the message
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int i = head + index;
+        return messages[i >= messages.length ? i - messages.length : i];
+    }
+
+    /**
+     * Returns the number of retained messages.
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all messages. Sequence numbers carry on from where they were.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(messages, null);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of messages ever added, which is also the sequence number of the next message.
+     * @return the total count
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the message with the given sequence number.
+     * @param sequence the sequence number
+     * @return the message, or null if it has been dropped or not added yet
+     */
+    public String getBySequence(long sequence) {
+        long oldest = totalCount - size;
+        if (sequence < oldest || sequence >= totalCount) {
+            return null;
+        }
+        return get((int) (sequence - oldest));
+    }
+
+    /**
+     * Returns the number of messages kept.
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return messages.length;
+    }
+}
@@ -0,0 +1,313 @@
+package dungeon.engine;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Draws the game for the text-based UI.
+ * Each frame is built in a reusable char buffer and written to the terminal with a single write.
+ * In ANSI mode only the tiles that changed since the previous frame are redrawn, using cursor
+ * movement escape codes, so a move on a large map costs a handful of bytes instead of a full redraw.
+ * <p>
+ * When the engine has a {@link FieldOfView}, unexplored tiles are blank and explored tiles out of
+ * sight are drawn dim (in ANSI mode). Then the frame isn't rebuilt from the whole map: only the
+ * tiles in view and the tiles whose visibility changed are repainted, so the cost of a frame
+ * depends on the view radius rather than the size of the map.
+ */
+public class TerminalRenderer {
+    private static final char ESC = '\u001b';
+
+    private final Writer out;
+    private final boolean ansi;
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private char[] chars = new char[1024];
+    private char[] frame = new char[0];
+    private char[] previous = new char[0];
+    private int height = -1;
+    private int width = -1;
+    private boolean fullRedraw = true;
+    // Fog of war state: the field of view last drawn, its update count then, and which tiles are dim
+    private FieldOfView fieldOfView;
+    private long fieldOfViewUpdate;
+    private boolean[] faded = new boolean[0];
+
+    /**
+     * Creates a renderer.
+     * @param out where frames are written
+     * @param ansi true to redraw only changed tiles using ANSI escape codes, false to print whole frames
+     */
+    public TerminalRenderer(Writer out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+    }
+
+    /**
+     * Creates a renderer for standard output. ANSI mode is used when running in a terminal that supports it.
+     * @return the renderer
+     */
+    public static TerminalRenderer forConsole() {
+        String term = System.getenv("TERM");
+        boolean ansi = System.console() != null && term != null && !term.equals("dumb");
+        return new TerminalRenderer(new OutputStreamWriter(System.out), ansi);
+    }
+
+    /**
+     * Returns whether this renderer redraws only the changed tiles.
+     * @return true in ANSI mode
+     */
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+    /**
+     * Makes the next frame a full redraw (e.g. after something else has written over the board).
+     */
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    /**
+     * Draws the board and the status line. In ANSI mode the cursor is left on the line below the
+     * status line, with the rest of the screen cleared, ready for messages and the input prompt.
+     * @param engine the game to draw
+     */
+    public void render(GameEngine engine) {
+        int h = engine.getHeight();
+        int w = engine.getWidth();
+        if (h != height || w != width) {
+            height = h;
+            width = w;
+            frame = new char[h * w];
+            previous = new char[h * w];
+            faded = new boolean[h * w];
+            fullRedraw = true;
+        }
+        FieldOfView view = engine.getFieldOfView();
+        if (view != fieldOfView) {
+            fieldOfView = view;
+            fullRedraw = true;
+        }
+        if (view != null) {
+            renderFogged(engine, view);
+            return;
+        }
+        fillFrame(engine);
+        buffer.setLength(0);
+        if (!ansi) {
+            appendFullFrame();
+        } else if (fullRedraw) {
+            buffer.append(ESC).append("[2J").append(ESC).append("[H");
+            appendFullFrame();
+        } else {
+            appendChangedTiles();
+            moveCursor(height + 1, 1);
+            buffer.append(ESC).append("[2K");
+        }
+        appendStatus(engine);
+        if (ansi) {
+            buffer.append(ESC).append("[J");
+        }
+        char[] swap = previous;
+        previous = frame;
+        frame = swap;
+        fullRedraw = false;
+        write();
+    }
+
+    /**
+     * Copies the symbols of the board (with the player on top) into the frame buffer.
+     */
+    private void fillFrame(GameEngine engine) {
+        Cell[][] map = engine.getMap();
+        for (int row = 0; row < height; row++) {
+            Cell[] cells = map[row];
+            int offset = row * width;
+            for (int col = 0; col < width; col++) {
+                frame[offset + col] = cells[col].getSymbol();
+            }
+        }
+        Player player = engine.getPlayer();
+        frame[player.getX() * width + player.getY()] = 'P';
+    }
+
+    /**
+     * Draws a frame with fog of war. Unless a full redraw is needed, only the tiles in view and
+     * the tiles whose visibility changed since the last frame are painted.
+     */
+    private void renderFogged(GameEngine engine, FieldOfView view) {
+        long updates = view.getUpdateCount();
+        if (updates - fieldOfViewUpdate > 1) {
+            // More than one update since the last frame, so some changes were missed
+            fullRedraw = true;
+        }
+        buffer.setLength(0);
+        if (fullRedraw) {
+            fillFoggedFrame(engine, view);
+            if (ansi) {
+                buffer.append(ESC).append("[2J").append(ESC).append("[H");
+                appendFoggedFrame();
+            } else {
+                appendFullFrame();
+            }
+        } else {
+            paintView(engine, view, updates != fieldOfViewUpdate);
+            if (ansi) {
+                moveCursor(height + 1, 1);
+                buffer.append(ESC).append("[2K");
+            } else {
+                appendFullFrame();
+            }
+        }
+        appendStatus(engine);
+        if (ansi) {
+            buffer.append(ESC).append("[J");
+        }
+        fieldOfViewUpdate = updates;
+        fullRedraw = false;
+        write();
+    }
+
+    /**
+     * Fills the whole frame from the map and the field of view.
+     */
+    private void fillFoggedFrame(GameEngine engine, FieldOfView view) {
+        Cell[][] map = engine.getMap();
+        for (int row = 0; row < height; row++) {
+            Cell[] cells = map[row];
+            int offset = row * width;
+            for (int col = 0; col < width; col++) {
+                boolean explored = view.isExplored(row, col);
+                frame[offset + col] = explored ? cells[col].getSymbol() : ' ';
+                faded[offset + col] = explored && !view.isVisible(row, col);
+            }
+        }
+        Player player = engine.getPlayer();
+        frame[player.getX() * width + player.getY()] = 'P';
+    }
+
+    /**
+     * Paints the tiles that went out of sight dim, then every tile in view (which includes the
+     * ones that came into sight), then the player.
+     */
+    private void paintView(GameEngine engine, FieldOfView view, boolean visibilityChanged) {
+        Cell[][] map = engine.getMap();
+        if (visibilityChanged) {
+            for (int i = 0; i < view.getChangedCount(); i++) {
+                int index = view.getChangedIndex(i);
+                int row = index / width;
+                int col = index - row * width;
+                if (!view.isVisible(row, col)) {
+                    paint(row, col, map[row][col].getSymbol(), true);
+                }
+            }
+        }
+        for (int i = 0; i < view.getVisibleCount(); i++) {
+            int index = view.getVisibleIndex(i);
+            int row = index / width;
+            int col = index - row * width;
+            paint(row, col, map[row][col].getSymbol(), false);
+        }
+        Player player = engine.getPlayer();
+        paint(player.getX(), player.getY(), 'P', false);
+    }
+
+    /**
+     * Puts a symbol in the frame and, in ANSI mode, draws it if it differs from what is on screen.
+     */
+    private void paint(int row, int col, char symbol, boolean dim) {
+        int index = row * width + col;
+        if (frame[index] == symbol && faded[index] == dim) {
+            return;
+        }
+        frame[index] = symbol;
+        faded[index] = dim;
+        if (ansi) {
+            moveCursor(row + 1, col + 1);
+            if (dim) {
+                buffer.append(ESC).append("[2m").append(symbol).append(ESC).append("[22m");
+            } else {
+                buffer.append(symbol);
+            }
+        }
+    }
+
+    /**
+     * Appends the whole frame, switching to dim text for the explored tiles out of sight.
+     */
+    private void appendFoggedFrame() {
+        for (int row = 0; row < height; row++) {
+            boolean dim = false;
+            for (int col = 0; col < width; col++) {
+                int index = row * width + col;
+                if (faded[index] != dim) {
+                    dim = faded[index];
+                    buffer.append(ESC).append(dim ? "[2m" : "[22m");
+                }
+                buffer.append(frame[index]);
+            }
+            if (dim) {
+                buffer.append(ESC).append("[22m");
+            }
+            buffer.append('\n');
+        }
+    }
+
+    private void appendFullFrame() {
+        for (int row = 0; row < height; row++) {
+            buffer.append(frame, row * width, width).append('\n');
+        }
+    }
+
+    /**
+     * Appends cursor moves and symbols for every run of tiles that differ from the previous frame.
+     */
+    private void appendChangedTiles() {
+        for (int row = 0; row < height; row++) {
+            int offset = row * width;
+            int col = 0;
+            while (col < width) {
+                if (frame[offset + col] == previous[offset + col]) {
+                    col++;
+                    continue;
+                }
+                int start = col;
+                while (col < width && frame[offset + col] != previous[offset + col]) {
+                    col++;
+                }
+                moveCursor(row + 1, start + 1);
+                buffer.append(frame, offset + start, col - start);
+            }
+        }
+    }
+
+    private void appendStatus(GameEngine engine) {
+        Player player = engine.getPlayer();
+        buffer.append("HP: ").append(player.getHealth())
+                .append(", Gold: ").append(player.getGold())
+                .append(", Steps: ").append(player.getSteps())
+                .append('\n');
+    }
+
+    private void moveCursor(int row, int col) {
+        buffer.append(ESC).append('[').append(row).append(';').append(col).append('H');
+    }
+
+    /**
+     * Writes the frame with a single write call.
+     */
+    private void write() {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        try {
+            out.write(chars, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
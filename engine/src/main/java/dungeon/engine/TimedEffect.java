@@ -0,0 +1,28 @@
+package dungeon.engine;
+
+/**
+ * The effects that can be scheduled for a later turn when timed effects are on
+ * (see {@link GameEngine#setTimedEffects}).
+ */
+public enum TimedEffect {
+    /** A sprung trap is set again. */
+    TRAP_REARM(10),
+    /** A potion heals 1 HP, then schedules itself again while there is healing left. */
+    HEAL(1),
+    /** A defeated mutant comes back on its tile, if the tile is free. */
+    RESPAWN(30);
+
+    private final int delay;
+
+    TimedEffect(int delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Returns how many turns after being scheduled the effect happens.
+     * @return the delay in turns
+     */
+    public int getDelay() {
+        return delay;
+    }
+}
@@ -0,0 +1,80 @@
+package dungeon.engine;
+
+/**
+ * Represents a trap cell in the dungeon. Damages the player when stepped on. With timed effects
+ * on, a trap is sprung by the player and re-arms a few turns later.
+ */
+public class TrapCell implements Cell {
+    private static final long serialVersionUID = -1015165607055398510L;
+    private boolean triggered;
+
+    public TrapCell() {
+        this.triggered = false;
+    }
+
+    /**
+     * Returns the symbol for this cell.
+     * @return 'T' if not triggered, '.' if triggered
+     */
+    @Override
+    public char getSymbol() {
+        return triggered ? '.' : 'T';
+    }
+
+    /**
+     * Handles interaction with the player (damages player, trap remains active, or is sprung
+     * until {@link TimedEffect#TRAP_REARM} with timed effects on).
+     * @param player the player
+     * @param engine the game engine
+     */
+    @Override
+    public void interact(Player player, GameEngine engine) {
+        if (triggered) {
+            engine.addStatus("You stepped over a sprung trap.");
+            return;
+        }
+        applyTo(player);
+        engine.addStatus("You fell into a trap and lost 2 HP.");
+        if (engine.scheduleEffect(TimedEffect.TRAP_REARM, player.getX(), player.getY(), 0, this)) {
+            triggered = true;
+        }
+    }
+
+    /**
+     * Takes 2 HP from the player, unless the trap is sprung.
+     * @param player the player
+     * @return this trap, which stays on the tile
+     */
+    @Override
+    public Cell applyTo(Player player) {
+        if (!triggered) {
+            player.decreaseHP(2);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the trap again after it was sprung.
+     */
+    void rearm() {
+        triggered = false;
+    }
+
+    /**
+     * Returns the type of this cell.
+     * @return {@link CellType#TRAP}
+     */
+    @Override
+    public CellType getType() {
+        return CellType.TRAP;
+    }
+
+    /**
+     * Returns whether the cell is passable.
+     * @return true
+     */
+    @Override
+    public boolean isPassable() {
+        return true;
+    }
+}
@@ -0,0 +1,271 @@
+package dungeon.engine;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Runs effects a number of turns in the future, keyed on the engine's step count (see
+ * {@link GameEngine#setTimedEffects}).
+ * <p>
+ * This is a hierarchical timing wheel: four wheels of 64 slots, each slot of a wheel spanning a
+ * whole turn of the wheel below, so effects up to 64<sup>4</sup> turns ahead are held without
+ * keeping one slot per turn. Scheduling puts a record in one slot, and each turn empties one slot
+ * of the bottom wheel; every 64 turns the next slot of the wheel above is spread out over the
+ * bottom wheel, and so on up. Both are O(1) (amortised for the spreading).
+ * <p>
+ * Records live in a pool of parallel arrays linked into slot lists by index, and freed records
+ * are reused, so once the pool is big enough scheduling and firing allocate nothing.
+ */
+public class TurnScheduler implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int WHEELS = 4;
+    /** The furthest ahead an effect can be scheduled, in turns. */
+    public static final long MAX_DELAY = (1L << (SLOT_BITS * WHEELS)) - 1;
+    private static final int NONE = -1;
+
+    // The last turn advanced to
+    private long now;
+    // Head record of each slot, wheel by wheel
+    private final int[] slots = new int[WHEELS * SLOTS];
+    // Records that are due, waiting to be polled
+    private int ready = NONE;
+    private int size;
+
+    // The record pool
+    private int[] next;
+    private long[] due;
+    private int[] kinds;
+    private int[] rows;
+    private int[] cols;
+    private int[] values;
+    private Object[] targets;
+    private int free = NONE;
+
+    // The record returned by the last successful poll
+    private transient int polledKind;
+    private transient int polledRow;
+    private transient int polledCol;
+    private transient int polledValue;
+    private transient Object polledTarget;
+
+    /**
+     * Creates an empty scheduler at turn 0.
+     */
+    public TurnScheduler() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty scheduler.
+     * @param now the current turn
+     */
+    public TurnScheduler(long now) {
+        this.now = now;
+        Arrays.fill(slots, NONE);
+        grow(64);
+    }
+
+    /**
+     * Schedules an effect. What the fields mean is up to the caller; they are handed back by
+     * {@link #poll(long)} when the effect falls due.
+     * @param delay the number of turns from now, at least 1 and at most {@link #MAX_DELAY}
+     * @param kind what kind of effect this is
+     * @param row a row, e.g. of the tile the effect applies to
+     * @param col a column
+     * @param value an extra value, e.g. an amount
+     * @param target an extra object, e.g. the cell the effect applies to (must be serializable
+     *               for games to be saved)
+     */
+    public void schedule(long delay, int kind, int row, int col, int value, Object target) {
+        if (delay < 1 || delay > MAX_DELAY) {
+            throw new IllegalArgumentException("delay must be from 1 to " + MAX_DELAY + ", was " + delay);
+        }
+        if (free == NONE) {
+            grow(next.length * 2);
+        }
+        int record = free;
+        free = next[record];
+        due[record] = now + delay;
+        kinds[record] = kind;
+        rows[record] = row;
+        cols[record] = col;
+        values[record] = value;
+        targets[record] = target;
+        insert(record);
+        size++;
+    }
+
+    /**
+     * Advances to the given turn, if not there yet, and takes the next effect that is due. Its
+     * fields are then available from {@link #getKind()} and the other getters until the next
+     * poll. Effects due on the same turn come out in no particular order.
+     * @param turn the current turn
+     * @return true if an effect was due, false if none are left up to this turn
+     */
+    public boolean poll(long turn) {
+        while (ready == NONE && now < turn) {
+            if (size == 0) {
+                now = turn;
+                break;
+            }
+            tick();
+        }
+        if (ready == NONE) {
+            return false;
+        }
+        int record = ready;
+        ready = next[record];
+        polledKind = kinds[record];
+        polledRow = rows[record];
+        polledCol = cols[record];
+        polledValue = values[record];
+        polledTarget = targets[record];
+        targets[record] = null;
+        next[record] = free;
+        free = record;
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves on one turn: spreads out the upper wheel slots that come round, then moves the
+     * bottom wheel's slot for this turn onto the ready list.
+     */
+    private void tick() {
+        now++;
+        for (int wheel = WHEELS - 1; wheel > 0; wheel--) {
+            int shift = SLOT_BITS * wheel;
+            if ((now & ((1L << shift) - 1)) == 0) {
+                int slot = wheel * SLOTS + (int) ((now >>> shift) & (SLOTS - 1));
+                int record = slots[slot];
+                slots[slot] = NONE;
+                while (record != NONE) {
+                    int following = next[record];
+                    insert(record);
+                    record = following;
+                }
+            }
+        }
+        int slot = (int) (now & (SLOTS - 1));
+        int record = slots[slot];
+        slots[slot] = NONE;
+        while (record != NONE) {
+            int following = next[record];
+            next[record] = ready;
+            ready = record;
+            record = following;
+        }
+    }
+
+    /**
+     * Puts a record in the slot for its due turn on the lowest wheel that reaches that far, or
+     * on the ready list if it is due already.
+     */
+    private void insert(int record) {
+        long delta = due[record] - now;
+        if (delta <= 0) {
+            next[record] = ready;
+            ready = record;
+            return;
+        }
+        int wheel = 0;
+        while (wheel < WHEELS - 1 && delta >= 1L << (SLOT_BITS * (wheel + 1))) {
+            wheel++;
+        }
+        int slot = wheel * SLOTS + (int) ((due[record] >>> (SLOT_BITS * wheel)) & (SLOTS - 1));
+        next[record] = slots[slot];
+        slots[slot] = record;
+    }
+
+    /**
+     * Grows the record pool, adding the new records to the free list.
+     */
+    private void grow(int capacity) {
+        int old = next == null ? 0 : next.length;
+        next = next == null ? new int[capacity] : Arrays.copyOf(next, capacity);
+        due = due == null ? new long[capacity] : Arrays.copyOf(due, capacity);
+        kinds = kinds == null ? new int[capacity] : Arrays.copyOf(kinds, capacity);
+        rows = rows == null ? new int[capacity] : Arrays.copyOf(rows, capacity);
+        cols = cols == null ? new int[capacity] : Arrays.copyOf(cols, capacity);
+        values = values == null ? new int[capacity] : Arrays.copyOf(values, capacity);
+        targets = targets == null ? new Object[capacity] : Arrays.copyOf(targets, capacity);
+        for (int i = capacity - 1; i >= old; i--) {
+            next[i] = free;
+            free = i;
+        }
+    }
+
+    /**
+     * Drops every scheduled effect.
+     */
+    public void clear() {
+        Arrays.fill(slots, NONE);
+        Arrays.fill(targets, null);
+        ready = NONE;
+        free = NONE;
+        for (int i = next.length - 1; i >= 0; i--) {
+            next[i] = free;
+            free = i;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the number of effects scheduled and not yet polled.
+     * @return the count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the last turn the scheduler advanced to.
+     * @return the turn
+     */
+    public long getNow() {
+        return now;
+    }
+
+    /**
+     * Returns the kind of the effect from the last poll.
+     * @return the kind
+     */
+    public int getKind() {
+        return polledKind;
+    }
+
+    /**
+     * Returns the row of the effect from the last poll.
+     * @return the row
+     */
+    public int getRow() {
+        return polledRow;
+    }
+
+    /**
+     * Returns the column of the effect from the last poll.
+     * @return the column
+     */
+    public int getCol() {
+        return polledCol;
+    }
+
+    /**
+     * Returns the value of the effect from the last poll.
+     * @return the value
+     */
+    public int getValue() {
+        return polledValue;
+    }
+
+    /**
+     * Returns the target of the effect from the last poll.
+     * @return the target, or null
+     */
+    public Object getTarget() {
+        return polledTarget;
+    }
+}
@@ -0,0 +1,312 @@
+package dungeon.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Many games stepped together, for training agents: a gym-style vectorised environment.
+ * <p>
+ * {@link #step(int[])} takes one action per game (an index into {@link GameEngine.Direction#values()})
+ * and writes the results into arrays that are allocated once and overwritten on every call:
+ * an observation per game (the {@link CellType} codes of the tiles around the player), the
+ * reward, the change in gold and HP, and whether the game ended. A game that ends is started
+ * again straight away, so its observation is the first one of the new game, as gym vector
+ * environments do.
+ * <p>
+ * The games are split into one chunk per worker and the chunks are stepped in parallel by a
+ * fixed set of threads, woken and waited for with {@link LockSupport} rather than by submitting
+ * tasks, so a step allocates nothing (apart from starting new games). Each game has its own
+ * random stream split off the seed, so results don't depend on the number of workers.
+ */
+public class VectorEnv implements AutoCloseable {
+    private static final GameEngine.Direction[] DIRECTIONS = GameEngine.Direction.values();
+
+    private final int count;
+    private final int size;
+    private final int radius;
+    private final int window;
+    private final int maxSteps;
+    private final GameEngine[] engines;
+    private final SplittableRandom[] streams;
+
+    private final byte[] observations;
+    private final float[] rewards;
+    private final int[] goldDeltas;
+    private final int[] healthDeltas;
+    private final boolean[] dones;
+
+    // Workers 1.. step chunks 1.. while the calling thread steps chunk 0
+    private final Thread[] workers;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile int round;
+    private volatile boolean closed;
+    private volatile Thread caller;
+    private volatile Throwable failure;
+    private int[] actions;
+
+    /**
+     * Creates the games, using one worker per available processor.
+     * @param count the number of games
+     * @param size the board size of each game
+     * @param radius how many tiles around the player each observation reaches
+     * @param maxSteps the number of steps after which a game is lost
+     * @param seed the seed all the games are derived from
+     */
+    public VectorEnv(int count, int size, int radius, int maxSteps, long seed) {
+        this(count, size, radius, maxSteps, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates the games.
+     * @param count the number of games
+     * @param size the board size of each game
+     * @param radius how many tiles around the player each observation reaches
+     * @param maxSteps the number of steps after which a game is lost
+     * @param seed the seed all the games are derived from
+     * @param parallelism the number of threads stepping games, including the caller's
+     */
+    public VectorEnv(int count, int size, int radius, int maxSteps, long seed, int parallelism) {
+        if (count < 1 || radius < 0 || parallelism < 1) {
+            throw new IllegalArgumentException("count and parallelism must be positive and radius not negative");
+        }
+        this.count = count;
+        this.size = size;
+        this.radius = radius;
+        this.window = 2 * radius + 1;
+        this.maxSteps = maxSteps;
+        engines = new GameEngine[count];
+        streams = new SplittableRandom[count];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            streams[i] = root.split();
+        }
+        observations = new byte[count * window * window];
+        rewards = new float[count];
+        goldDeltas = new int[count];
+        healthDeltas = new int[count];
+        dones = new boolean[count];
+        workers = new Thread[Math.min(parallelism, count) - 1];
+        for (int w = 0; w < workers.length; w++) {
+            int chunk = w + 1;
+            workers[w] = new Thread(() -> work(chunk), "MiniDungeon-env-" + chunk);
+            workers[w].setDaemon(true);
+            workers[w].start();
+        }
+    }
+
+    /**
+     * Starts every game again and writes the first observations. Rewards, deltas and done flags
+     * are cleared.
+     */
+    public void reset() {
+        for (int i = 0; i < count; i++) {
+            restart(i);
+            rewards[i] = 0;
+            goldDeltas[i] = 0;
+            healthDeltas[i] = 0;
+            dones[i] = false;
+        }
+    }
+
+    /**
+     * Makes one move in every game, in parallel, and writes the results.
+     * @param actions one action per game, an index into {@link GameEngine.Direction#values()}
+     * @throws IllegalStateException if {@link #reset()} hasn't been called or the environment is closed
+     */
+    public void step(int[] actions) {
+        if (actions.length != count) {
+            throw new IllegalArgumentException("expected " + count + " actions, got " + actions.length);
+        }
+        if (engines[0] == null || closed) {
+            throw new IllegalStateException(closed ? "closed" : "reset() must be called first");
+        }
+        this.actions = actions;
+        if (workers.length > 0) {
+            caller = Thread.currentThread();
+            pending.set(workers.length);
+            // Publishes the actions to the workers
+            round++;
+            for (Thread worker : workers) {
+                LockSupport.unpark(worker);
+            }
+        }
+        try {
+            stepChunk(0);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        while (pending.get() != 0) {
+            LockSupport.park(this);
+        }
+        Throwable error = failure;
+        if (error != null) {
+            failure = null;
+            throw new IllegalStateException("a game failed to step", error);
+        }
+    }
+
+    private void work(int chunk) {
+        int seen = 0;
+        while (true) {
+            while (round == seen && !closed) {
+                LockSupport.park(this);
+            }
+            if (closed) {
+                return;
+            }
+            seen = round;
+            try {
+                stepChunk(chunk);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            if (pending.decrementAndGet() == 0) {
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+
+    private void stepChunk(int chunk) {
+        int chunks = workers.length + 1;
+        int end = (int) ((long) count * (chunk + 1) / chunks);
+        for (int i = (int) ((long) count * chunk / chunks); i < end; i++) {
+            stepGame(i, actions[i]);
+        }
+    }
+
+    private void stepGame(int i, int action) {
+        GameEngine engine = engines[i];
+        Player before = engine.getPlayer();
+        int gold = before.getGold();
+        int health = before.getHealth();
+        engine.movePlayer(DIRECTIONS[action]);
+        Player after = engine.getPlayer();
+        if (after != before) {
+            // A new level starts with a new player, so only count what was gained since
+            gold = 0;
+            health = after.getHealth();
+        }
+        int goldDelta = after.getGold() - gold;
+        int healthDelta = after.getHealth() - health;
+        goldDeltas[i] = goldDelta;
+        healthDeltas[i] = healthDelta;
+        rewards[i] = goldDelta + healthDelta;
+        boolean done = engine.isFinished();
+        dones[i] = done;
+        if (done) {
+            restart(i);
+        } else {
+            observe(i);
+        }
+    }
+
+    private void restart(int i) {
+        GameEngine engine = new GameEngine(size, size, 3, streams[i].split());
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(maxSteps);
+        engines[i] = engine;
+        observe(i);
+    }
+
+    /**
+     * Writes the type codes of the tiles around the player, row by row, with tiles off the board
+     * as walls.
+     */
+    private void observe(int i) {
+        GameEngine engine = engines[i];
+        Cell[][] map = engine.getMap();
+        int height = engine.getHeight();
+        int width = engine.getWidth();
+        Player player = engine.getPlayer();
+        int top = player.getX() - radius;
+        int left = player.getY() - radius;
+        int offset = i * window * window;
+        byte wall = (byte) CellType.WALL.ordinal();
+        for (int r = 0; r < window; r++) {
+            int row = top + r;
+            for (int c = 0; c < window; c++) {
+                int col = left + c;
+                observations[offset++] = row < 0 || row >= height || col < 0 || col >= width
+                        ? wall : (byte) map[row][col].getType().ordinal();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads. The games can still be read, but not stepped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Returns the number of games.
+     * @return the count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes in one game's observation, (2 * radius + 1)<sup>2</sup>.
+     * @return the observation size
+     */
+    public int getObservationSize() {
+        return window * window;
+    }
+
+    /**
+     * Returns the observations, one after another, each the {@link CellType} codes of the tiles
+     * around the player row by row. The same array is overwritten by every step.
+     * @return the observations
+     */
+    public byte[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Returns the reward of each game for the last step: the gold gained plus the change in HP.
+     * @return the rewards, overwritten by every step
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * Returns the gold each game gained in the last step.
+     * @return the gold changes, overwritten by every step
+     */
+    public int[] getGoldDeltas() {
+        return goldDeltas;
+    }
+
+    /**
+     * Returns the change in HP of each game in the last step.
+     * @return the HP changes, overwritten by every step
+     */
+    public int[] getHealthDeltas() {
+        return healthDeltas;
+    }
+
+    /**
+     * Returns whether each game ended in the last step (and was started again).
+     * @return the done flags, overwritten by every step
+     */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * Returns one of the games.
+     * @param index the index of the game
+     * @return the game
+     */
+    public GameEngine getEngine(int index) {
+        return engines[index];
+    }
+}
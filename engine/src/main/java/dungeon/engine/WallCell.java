@@ -1,13 +1,17 @@
 package dungeon.engine;
 
-import javafx.scene.layout.StackPane;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-
 /**
  * Represents a wall cell in the dungeon. Not passable by the player.
  */
 public class WallCell implements Cell {
+    private static final long serialVersionUID = 8229766369692741137L;
+
+    /**
+     * A shared wall cell. Walls have no state, so generated levels use this one instance for
+     * every wall, which keeps large mazes small in memory.
+     */
+    public static final WallCell INSTANCE = new WallCell();
+
     /**
      * Returns the symbol for this cell.
      * @return '#'
@@ -21,6 +25,12 @@ public class WallCell implements Cell {
      */
     @Override
     public void interact(Player player, GameEngine engine) { /* nothing */ }
+    /**
+     * Returns the type of this cell.
+     * @return {@link CellType#WALL}
+     */
+    @Override
+    public CellType getType() { return CellType.WALL; }
     /**
      * Returns whether the cell is passable.
      * @return false
@@ -29,18 +39,10 @@ public class WallCell implements Cell {
     public boolean isPassable() { return false; }
 
     /**
-     * Returns the JavaFX node for this cell.
-     * @return the node
+     * Keeps wall cells shared when a saved game is loaded.
+     * @return the shared instance
      */
-    @Override
-    public javafx.scene.Node getNode() {
-        StackPane pane = new StackPane();
-        javafx.scene.image.ImageView imageView = new javafx.scene.image.ImageView(
-                getClass().getResource("/wall.png").toExternalForm()
-        );
-        imageView.setFitWidth(40);
-        imageView.setFitHeight(40);
-        pane.getChildren().add(imageView);
-        return pane;
+    private Object readResolve() {
+        return INSTANCE;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,1153 @@
+import dungeon.engine.*;
+import java.io.File;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEngineTest {
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(10);
+    }
+
+    @Test
+    void testMapInitialization() {
+        assertNotNull(engine.getMap());
+        assertEquals(10, engine.getHeight());
+        assertEquals(10, engine.getWidth());
+        assertNotNull(engine.getPlayer());
+        assertEquals(1, engine.getPlayer().getX());
+        assertEquals(1, engine.getPlayer().getY());
+    }
+
+    @Test
+    void testPlayerMovement() {
+        // Start at (1,1)
+        assertTrue(engine.movePlayer(GameEngine.Direction.RIGHT)); // (1,2)
+        assertEquals(1, engine.getPlayer().getX());
+        assertEquals(2, engine.getPlayer().getY());
+
+        // Move back to (1,1)
+        assertTrue(engine.movePlayer(GameEngine.Direction.LEFT)); // (1,1)
+        assertEquals(1, engine.getPlayer().getX());
+        assertEquals(1, engine.getPlayer().getY());
+
+        // Test wall collisions from starting position
+        assertFalse(engine.movePlayer(GameEngine.Direction.LEFT)); // Wall at (1,0)
+        assertFalse(engine.movePlayer(GameEngine.Direction.UP));   // Wall at (0,1)
+    }
+
+    @Test
+    void testCellInteraction() {
+        // Place a GoldCell at [1][2]
+        engine.replaceCell(1, 2, new GoldCell(2));
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(2, engine.getPlayer().getGold());
+        assertTrue(engine.getMap()[1][2] instanceof EmptyCell);
+    }
+
+    @Test
+    void testLoseCondition() {
+        // Place traps in a row to ensure HP drops to 0
+        for (int i = 2; i <= 6; i++) {
+            engine.replaceCell(1, i, new TrapCell());
+        }
+        for (int i = 0; i < 5; i++) {
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+        }
+        assertEquals(0, engine.getPlayer().getHealth());
+        assertFalse(engine.movePlayer(GameEngine.Direction.RIGHT)); // HP should be 0, game over
+    }
+
+    @Test
+    void testMaxSteps() {
+        for (int i = 0; i < 100; i++) {
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+        }
+        assertFalse(engine.movePlayer(GameEngine.Direction.RIGHT)); // Max steps reached
+    }
+
+    @Test
+    void testLevelAdvancementAndWin() {
+        // Place Ladder at [1][2] for Level 1
+        engine.replaceCell(1, 2, new LadderCell());
+        assertEquals(1, engine.getLevel());
+        engine.movePlayer(GameEngine.Direction.RIGHT); // Step on ladder
+        assertEquals(2, engine.getLevel());
+        assertEquals(engine.getPlayer().getX(), 1);
+        assertEquals(engine.getPlayer().getY(), 1);
+        // Place Ladder at [1][2] for Level 2
+        engine.replaceCell(1, 2, new LadderCell());
+        engine.movePlayer(GameEngine.Direction.RIGHT); // Step on ladder again
+        assertTrue(engine.isGameOver());
+        assertTrue(engine.hasWon());
+    }
+
+    @Test
+    void testTopScoresLogic() {
+        // Simulate top scores logic
+        // Here, we simulate adding scores directly
+        java.util.List<dungeon.engine.ScoreEntry> scores = new java.util.ArrayList<>();
+        scores.add(new ScoreEntry(10, java.time.LocalDate.of(2025, 4, 20)));
+        scores.add(new ScoreEntry(25, java.time.LocalDate.of(2025, 4, 21)));
+        scores.add(new ScoreEntry(15, java.time.LocalDate.of(2025, 4, 22)));
+        scores.add(new ScoreEntry(5, java.time.LocalDate.of(2025, 4, 23)));
+        scores.add(new ScoreEntry(30, java.time.LocalDate.of(2025, 4, 24)));
+        scores.add(new ScoreEntry(20, java.time.LocalDate.of(2025, 4, 25)));
+        java.util.Collections.sort(scores);
+        assertEquals(30, scores.get(0).getScore());
+        assertEquals(25, scores.get(1).getScore());
+        assertEquals(20, scores.get(2).getScore());
+        assertEquals(15, scores.get(3).getScore());
+        assertEquals(10, scores.get(4).getScore());
+    }
+
+    @Test
+    void testHealthPotionInteraction() {
+        engine.replaceCell(1, 2, new HealthPotionCell());
+        engine.getPlayer().decreaseHP(4); // HP = 6
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(10, engine.getPlayer().getHealth()); // Should restore to max 10
+        assertTrue(engine.getMap()[1][2] instanceof EmptyCell);
+    }
+
+    @Test
+    void testTrapInteraction() {
+        engine.replaceCell(1, 2, new TrapCell());
+        int hpBefore = engine.getPlayer().getHealth();
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(hpBefore - 2, engine.getPlayer().getHealth());
+        // Trap remains active
+        assertTrue(engine.getMap()[1][2] instanceof TrapCell);
+    }
+
+    @Test
+    void testMeleeMutantInteraction() {
+        engine.replaceCell(1, 2, new MeleeMutantCell());
+        int hpBefore = engine.getPlayer().getHealth();
+        int goldBefore = engine.getPlayer().getGold();
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(hpBefore - 2, engine.getPlayer().getHealth());
+        assertEquals(goldBefore + 2, engine.getPlayer().getGold());
+        assertTrue(engine.getMap()[1][2] instanceof EmptyCell);
+    }
+
+    @Test
+    void testRangedMutantInteraction() {
+        engine.replaceCell(1, 2, new RangedMutantCell());
+        int goldBefore = engine.getPlayer().getGold();
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(goldBefore + 2, engine.getPlayer().getGold());
+        assertTrue(engine.getMap()[1][2] instanceof EmptyCell);
+    }
+
+    @Test
+    void testSaveAndLoadGame() throws Exception {
+        engine.replaceCell(1, 2, new GoldCell(2));
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        int goldBefore = engine.getPlayer().getGold();
+        // Save
+        java.io.File file = new java.io.File("test_save.dat");
+        try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(new java.io.FileOutputStream(file))) {
+            oos.writeObject(engine);
+        }
+        // Load
+        GameEngine loadedEngine;
+        try (java.io.ObjectInputStream ois = new java.io.ObjectInputStream(new java.io.FileInputStream(file))) {
+            loadedEngine = (GameEngine) ois.readObject();
+        }
+        assertEquals(goldBefore, loadedEngine.getPlayer().getGold());
+        assertEquals(engine.getPlayer().getX(), loadedEngine.getPlayer().getX());
+        assertEquals(engine.getPlayer().getY(), loadedEngine.getPlayer().getY());
+        file.delete();
+    }
+
+    @Test
+    void testApplyMovesScript() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 3, new GoldCell(2));
+        long logCount = engine.getStatusCount();
+        MoveBatchResult result = engine.applyMoves("rr d l u");
+        assertEquals(5, result.getRequested());
+        assertEquals(5, result.getApplied());
+        assertEquals(2, result.getGoldGained());
+        assertEquals(MoveBatchResult.Outcome.IN_PROGRESS, result.getOutcome());
+        assertEquals(1, engine.getPlayer().getX());
+        assertEquals(2, engine.getPlayer().getY());
+        // One aggregated message for the whole batch
+        assertEquals(logCount + 1, engine.getStatusCount());
+    }
+
+    @Test
+    void testApplyMovesStopsAtTerminalState() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        for (int i = 2; i <= 6; i++) {
+            engine.replaceCell(1, i, new TrapCell());
+        }
+        GameEngine.Direction[] moves = new GameEngine.Direction[8];
+        java.util.Arrays.fill(moves, GameEngine.Direction.RIGHT);
+        MoveBatchResult result = engine.applyMoves(moves);
+        assertEquals(MoveBatchResult.Outcome.LOST, result.getOutcome());
+        assertEquals(5, result.getApplied());
+        assertEquals(3, result.getSkipped());
+        assertEquals(-10, result.getHealthChange());
+        assertEquals(6, engine.getPlayer().getY());
+    }
+
+    @Test
+    void testApplyMovesCountsBlockedMoves() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        MoveBatchResult result = engine.applyMoves("uulr");
+        assertEquals(1, result.getApplied());
+        assertEquals(3, result.getBlocked());
+        assertThrows(IllegalArgumentException.class, () -> engine.applyMoves("ux"));
+        GameEngine.Direction[] moves = {GameEngine.Direction.RIGHT};
+        assertThrows(IllegalArgumentException.class, () -> engine.applyMoves(moves, 2));
+        assertThrows(IllegalArgumentException.class, () -> engine.applyMoves(moves, -1));
+        assertEquals(2, engine.getPlayer().getY());
+    }
+
+    @Test
+    void testApplyMovesCountsGoldAcrossALadder() {
+        clearInterior();
+        engine.setStatusEcho(false);
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 2, new GoldCell(2));
+        engine.replaceCell(1, 3, new LadderCell());
+        engine.getPlayer().decreaseHP(4);
+        MoveBatchResult result = engine.applyMoves("rr");
+        assertEquals(1, result.getLevelsGained());
+        // The new level's player starts afresh, but the batch still reports the gold picked up
+        assertTrue(result.getGoldGained() > 0);
+        assertEquals(0, result.getHealthChange());
+    }
+
+    @Test
+    void testGameLoopPublishesSnapshots() throws Exception {
+        GameLoop loop = new GameLoop(10, 10);
+        loop.start(3);
+        RenderSnapshot first = awaitSnapshot(loop, 0);
+        assertEquals(10, first.getHeight());
+        assertEquals(8, first.getPlayerX());
+        loop.move(GameEngine.Direction.UP);
+        RenderSnapshot second = awaitSnapshot(loop, first.getVersion());
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(first.getGameId(), second.getGameId());
+        loop.newGame(3);
+        RenderSnapshot third = awaitSnapshot(loop, second.getVersion());
+        assertTrue(third.getGameId() > second.getGameId());
+        // Coalesced moves still log a message each, not a batch summary
+        loop.move(new GameEngine.Direction[] {GameEngine.Direction.DOWN, GameEngine.Direction.UP}, 2);
+        int moveMessages = 0;
+        for (int i = 0; i < 500 && moveMessages < 3; i++) {
+            GameLoop.Notice notice;
+            while ((notice = loop.pollNotice()) != null) {
+                assertFalse(notice.getText().startsWith("Batch:"), notice.getText());
+                if (notice.getText().startsWith("You moved") || notice.getText().startsWith("You tried")) {
+                    moveMessages++;
+                }
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(3, moveMessages);
+        loop.shutdown();
+    }
+
+    @Test
+    void testGameLoopSavesAndLoadsInTheBackground() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("saves");
+        File save = dir.resolve("save.dat").toFile();
+        File autosave = dir.resolve("autosave.dat").toFile();
+        GameLoop loop = new GameLoop(10, 10);
+        try {
+            loop.start(3);
+            RenderSnapshot first = awaitSnapshot(loop, 0);
+            loop.setAutosave(autosave, 10);
+            loop.move(GameEngine.Direction.UP);
+            awaitNotice(loop, GameLoop.Notice.Kind.AUTOSAVED);
+            assertTrue(autosave.length() > 0);
+            loop.save(save);
+            awaitNotice(loop, GameLoop.Notice.Kind.SAVED);
+            RenderSnapshot saved = loop.getSnapshot();
+            loop.setAutosave(null, 0);
+            loop.move(GameEngine.Direction.RIGHT);
+            loop.load(save);
+            awaitNotice(loop, GameLoop.Notice.Kind.LOADED);
+            RenderSnapshot loaded = awaitSnapshot(loop, saved.getVersion());
+            while (loaded.getGameId() == saved.getGameId()) {
+                loaded = awaitSnapshot(loop, loaded.getVersion());
+            }
+            assertEquals(saved.getPlayerX(), loaded.getPlayerX());
+            assertEquals(saved.getPlayerY(), loaded.getPlayerY());
+            assertEquals(saved.getSteps(), loaded.getSteps());
+
+            // A load queued straight after a save reads what the save wrote
+            File fresh = dir.resolve("fresh.dat").toFile();
+            loop.save(fresh);
+            loop.load(fresh);
+            awaitNotice(loop, GameLoop.Notice.Kind.SAVED);
+            awaitNotice(loop, GameLoop.Notice.Kind.LOADED);
+
+            // A file holding something other than a game is reported, not swallowed
+            File wrong = dir.resolve("wrong.dat").toFile();
+            try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(new java.io.FileOutputStream(wrong))) {
+                out.writeObject("not a game");
+            }
+            loop.load(wrong);
+            awaitNotice(loop, GameLoop.Notice.Kind.LOAD_ERROR);
+        } finally {
+            loop.shutdown();
+            for (File file : dir.toFile().listFiles()) {
+                file.delete();
+            }
+            dir.toFile().delete();
+        }
+    }
+
+    /**
+     * Waits for a notice of the given kind, skipping the others, and fails after 5 seconds.
+     */
+    private static void awaitNotice(GameLoop loop, GameLoop.Notice.Kind kind) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            GameLoop.Notice notice;
+            while ((notice = loop.pollNotice()) != null) {
+                if (notice.getKind() == kind) {
+                    return;
+                }
+                assertFalse(notice.getKind() == GameLoop.Notice.Kind.SAVE_ERROR
+                        || notice.getKind() == GameLoop.Notice.Kind.LOAD_ERROR, notice.getText());
+            }
+            Thread.sleep(10);
+        }
+        fail("No " + kind + " notice");
+    }
+
+    private static RenderSnapshot awaitSnapshot(GameLoop loop, long afterVersion) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            RenderSnapshot snapshot = loop.getSnapshot();
+            if (snapshot != null && snapshot.getVersion() > afterVersion) {
+                return snapshot;
+            }
+            Thread.sleep(10);
+        }
+        fail("No snapshot published");
+        return null;
+    }
+
+    @Test
+    void testTerminalRendererRedrawsOnlyChangedTiles() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        java.io.StringWriter out = new java.io.StringWriter();
+        TerminalRenderer renderer = new TerminalRenderer(out, true);
+        renderer.render(engine);
+        String full = out.toString();
+        assertTrue(full.contains("#P.......#"));
+        out.getBuffer().setLength(0);
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        renderer.render(engine);
+        // Only the two tiles the player moved between are redrawn, as one run on row 2
+        assertTrue(out.toString().startsWith("\u001b[2;2H.P"));
+        assertFalse(out.toString().contains("##########"));
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i * 100L);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(100, histogram.getMin());
+        assertEquals(1_000_000, histogram.getMax());
+        // Values are reported to within the histogram's precision (under 2%)
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.02);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.02);
+    }
+
+    @Test
+    void testEngineMetricsRecordsMovesAndInteractions() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 2, new GoldCell(2));
+        EngineMetrics metrics = new EngineMetrics();
+        engine.setMetrics(metrics);
+        engine.applyMoves("rrl");
+        assertEquals(3, metrics.getMoveLatency().getCount());
+        assertEquals(1, metrics.getInteractions(CellType.GOLD));
+        assertEquals(2, metrics.getInteractions(CellType.EMPTY));
+        assertTrue(metrics.toJson().contains("\"gold\":1"));
+    }
+
+    @Test
+    void testPipeRunnerWritesOneLinePerGame() throws Exception {
+        PipeRunner runner = new PipeRunner(10);
+        EngineMetrics metrics = new EngineMetrics();
+        runner.setMetrics(metrics);
+        java.io.StringWriter out = new java.io.StringWriter();
+        String input = "rrdd\n\n  \r\nuu lx\nlrlrl";
+        runner.run(new java.io.ByteArrayInputStream(input.getBytes()), out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(3, runner.getGames());
+        int[] scriptMoves = {4, 3, 5};
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith("game=" + (i + 1) + " result="));
+            assertEquals(scriptMoves[i], field(lines[i], "moves") + field(lines[i], "blocked") + field(lines[i], "skipped"));
+        }
+        assertTrue(lines[1].endsWith(" invalid=1"));
+        assertTrue(!lines[0].contains("invalid"));
+        // The first level of every game is recorded
+        assertTrue(metrics.getGenerationTime().getCount() >= 3);
+    }
+
+    private static int field(String line, String name) {
+        for (String part : line.split(" ")) {
+            if (part.startsWith(name + "=")) {
+                return Integer.parseInt(part.substring(name.length() + 1));
+            }
+        }
+        throw new AssertionError("no " + name + " in " + line);
+    }
+
+    @Test
+    void testMovesDoNotAllocate() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        engine.setMetrics(new EngineMetrics());
+        GameEngine.Direction[] moves = new GameEngine.Direction[64];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = i % 2 == 0 ? GameEngine.Direction.RIGHT : GameEngine.Direction.LEFT;
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        // Warm up so the measured moves run compiled code
+        for (int i = 0; i < 4000; i++) {
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+            engine.movePlayer(GameEngine.Direction.LEFT);
+            engine.applyMoves(moves, moves.length);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+            engine.movePlayer(GameEngine.Direction.LEFT);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        // Allow for a few stray allocations (e.g. by the JIT or the MXBean itself), not one per move
+        assertTrue(allocated < 2000, "allocated " + allocated + " bytes for 2000 moves");
+    }
+
+    @Test
+    void testPrefetchedLevelMatchesGeneratedLevel() {
+        engine.setLevelPrefetch(true);
+        engine.replaceCell(1, 2, new LadderCell());
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(2, engine.getLevel());
+        LevelSpec spec = LevelSpec.forDifficulty(10, 10, LevelManager.DEFAULT_MAX_SIZE, engine.getDifficulty());
+        Level expected = LevelGenerator.generate(spec, 2, engine.getDifficulty(),
+                LevelGenerator.levelSeed(engine.getSeed(), 2));
+        assertEquals(spec.getHeight(), engine.getHeight());
+        for (int i = 0; i < engine.getHeight(); i++) {
+            for (int j = 0; j < engine.getWidth(); j++) {
+                assertEquals(expected.getCells()[i][j].getSymbol(), engine.getCell(i, j).getSymbol());
+            }
+        }
+    }
+
+    @Test
+    void testLadderFromALargerBoardToASmallerOne() {
+        GameEngine game = new GameEngine(10, 10, 3, 42L);
+        game.setStatusEcho(false);
+        game.initializeLevel(11);
+        assertEquals(11, game.getDifficulty());
+        assertEquals(16, game.getHeight());
+        // The next level is capped smaller than this one
+        game.setMaxBoardSize(10);
+        game.replaceCell(14, 1, EmptyCell.INSTANCE);
+        game.replaceCell(14, 2, new LadderCell());
+        game.getPlayer().setX(14);
+        game.getPlayer().setY(1);
+        game.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(2, game.getLevel());
+        assertEquals(10, game.getHeight());
+        assertTrue(game.getDifficulty() > 11);
+    }
+
+    @Test
+    void testLevelSpecScalesWithDifficulty() {
+        LevelSpec base = LevelSpec.forDifficulty(10, 10, 16, LevelSpec.BASE_DIFFICULTY);
+        assertEquals(10, base.getHeight());
+        assertEquals(5, base.getCount(CellType.GOLD));
+        assertEquals(5, base.getCount(CellType.TRAP));
+        assertEquals(3, base.getCount(CellType.MELEE_MUTANT));
+        assertEquals(1, base.getCount(CellType.RANGED_MUTANT));
+        assertEquals(2, base.getCount(CellType.HEALTH_POTION));
+        LevelSpec hard = LevelSpec.forDifficulty(10, 10, 16, 9);
+        assertEquals(16, hard.getHeight());
+        assertTrue(hard.getCount(CellType.TRAP) > base.getCount(CellType.TRAP));
+        // Density still rises once the board stops growing
+        LevelSpec harder = LevelSpec.forDifficulty(10, 10, 16, 40);
+        assertEquals(16, harder.getHeight());
+        assertTrue(harder.getSpawnTable().getRandomCount() > hard.getSpawnTable().getRandomCount());
+        assertTrue(harder.getTotalCount() <= (14 * 14 - 2) / 2);
+    }
+
+    @Test
+    void testSpawnTableSamplesInProportionToWeights() {
+        SpawnTable table = new SpawnTable();
+        table.setWeight(CellType.GOLD, 1);
+        table.setWeight(CellType.TRAP, 2);
+        table.setWeight(CellType.MELEE_MUTANT, 7);
+        java.util.Random random = new java.util.Random(42);
+        int[] counts = new int[CellType.count()];
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            counts[table.sample(random).ordinal()]++;
+        }
+        assertEquals(0.1, (double) counts[CellType.GOLD.ordinal()] / samples, 0.01);
+        assertEquals(0.2, (double) counts[CellType.TRAP.ordinal()] / samples, 0.01);
+        assertEquals(0.7, (double) counts[CellType.MELEE_MUTANT.ordinal()] / samples, 0.01);
+        assertEquals(0, counts[CellType.RANGED_MUTANT.ordinal()]);
+    }
+
+    @Test
+    void testMazeLayoutsAreConnected() {
+        for (LevelLayout layout : new LevelLayout[] {LevelLayout.MAZE, LevelLayout.ROOMS}) {
+            for (int[] size : new int[][] {{10, 10}, {21, 21}, {20, 41}, {64, 101}}) {
+                LevelSpec spec = LevelSpec.forDifficulty(size[0], size[1], size[0], LevelSpec.BASE_DIFFICULTY, layout);
+                Level level = LevelGenerator.generate(spec, 1, LevelSpec.BASE_DIFFICULTY, size[0] * 31L + size[1]);
+                Cell[][] cells = level.getCells();
+                int open = 0;
+                for (Cell[] row : cells) {
+                    for (Cell cell : row) {
+                        if (!(cell instanceof WallCell)) {
+                            open++;
+                        }
+                    }
+                }
+                // Flood fill from the entry over everything but walls
+                boolean[][] seen = new boolean[cells.length][cells[0].length];
+                java.util.ArrayDeque<int[]> queue = new java.util.ArrayDeque<>();
+                queue.add(new int[] {level.getStartX(), level.getStartY()});
+                seen[level.getStartX()][level.getStartY()] = true;
+                int reached = 0;
+                boolean ladder = false;
+                while (!queue.isEmpty()) {
+                    int[] at = queue.poll();
+                    reached++;
+                    ladder |= cells[at[0]][at[1]] instanceof LadderCell;
+                    for (GameEngine.Direction direction : GameEngine.Direction.values()) {
+                        int x = at[0] + direction.getRowDelta();
+                        int y = at[1] + direction.getColDelta();
+                        if (!seen[x][y] && !(cells[x][y] instanceof WallCell)) {
+                            seen[x][y] = true;
+                            queue.add(new int[] {x, y});
+                        }
+                    }
+                }
+                assertTrue(ladder, layout + " " + size[0] + "x" + size[1]);
+                assertEquals(open, reached, layout + " " + size[0] + "x" + size[1]);
+            }
+        }
+    }
+
+    @Test
+    void testFieldOfViewShadowsAndChanges() {
+        Cell[][] map = new Cell[21][21];
+        for (int i = 0; i < 21; i++) {
+            for (int j = 0; j < 21; j++) {
+                boolean edge = i == 0 || j == 0 || i == 20 || j == 20;
+                map[i][j] = edge ? WallCell.INSTANCE : EmptyCell.INSTANCE;
+            }
+        }
+        map[10][12] = WallCell.INSTANCE;
+        FieldOfView view = new FieldOfView(21, 21, 5);
+        view.update(map, 10, 10);
+        assertTrue(view.isVisible(10, 10));
+        assertTrue(view.isVisible(10, 12));
+        assertFalse(view.isVisible(10, 13)); // behind the wall
+        assertTrue(view.isVisible(5, 10));
+        assertFalse(view.isVisible(4, 10)); // out of range
+        assertEquals(view.getVisibleCount(), view.getChangedCount());
+
+        boolean[] before = new boolean[21 * 21];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = view.isVisible(i / 21, i % 21);
+        }
+        view.update(map, 11, 10);
+        assertFalse(view.isVisible(5, 10));
+        assertTrue(view.isExplored(5, 10));
+        assertFalse(view.isExplored(4, 10));
+        int changed = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != view.isVisible(i / 21, i % 21)) {
+                changed++;
+            }
+        }
+        assertEquals(changed, view.getChangedCount());
+        for (int i = 0; i < view.getChangedCount(); i++) {
+            int index = view.getChangedIndex(i);
+            assertTrue(before[index] != view.isVisible(index / 21, index % 21));
+        }
+
+        engine.setViewRadius(3);
+        assertNotNull(engine.getFieldOfView());
+        assertTrue(engine.getFieldOfView().isVisible(engine.getPlayer().getX(), engine.getPlayer().getY()));
+    }
+
+    @Test
+    void testFieldOfViewAfterLadderAndLoad() throws Exception {
+        clearInterior();
+        engine.setStatusEcho(false);
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 2, new LadderCell());
+        engine.setViewRadius(3);
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(2, engine.getLevel());
+        FieldOfView view = engine.getFieldOfView();
+        for (int i = 0; i < engine.getHeight(); i++) {
+            for (int j = 0; j < engine.getWidth(); j++) {
+                int distance = (i - 1) * (i - 1) + (j - 1) * (j - 1);
+                assertFalse(view.isExplored(i, j) && distance > 9, "explored " + i + "," + j);
+            }
+        }
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(engine);
+        }
+        GameEngine loaded;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (GameEngine) in.readObject();
+        }
+        FieldOfView loadedView = loaded.getFieldOfView();
+        for (int i = 0; i < engine.getHeight(); i++) {
+            for (int j = 0; j < engine.getWidth(); j++) {
+                assertEquals(view.isExplored(i, j), loadedView.isExplored(i, j));
+                assertEquals(view.isVisible(i, j), loadedView.isVisible(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testIncrementalFieldOfViewMatchesAFreshOne() {
+        int size = 200;
+        java.util.Random random = new java.util.Random(7);
+        Cell[][] map = new Cell[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                boolean edge = i == 0 || j == 0 || i == size - 1 || j == size - 1;
+                map[i][j] = edge || random.nextInt(5) == 0 ? WallCell.INSTANCE : EmptyCell.INSTANCE;
+            }
+        }
+        int row = size / 2;
+        int col = size / 2;
+        map[row][col] = EmptyCell.INSTANCE;
+        FieldOfView view = new FieldOfView(size, size, 8);
+        GameEngine.Direction[] directions = GameEngine.Direction.values();
+        for (int step = 0; step < 1500; step++) {
+            GameEngine.Direction dir = directions[random.nextInt(directions.length)];
+            if (map[row + dir.getRowDelta()][col + dir.getColDelta()].isPassable()) {
+                row += dir.getRowDelta();
+                col += dir.getColDelta();
+            }
+            view.update(map, row, col);
+            FieldOfView fresh = new FieldOfView(size, size, 8);
+            fresh.update(map, row, col);
+            assertEquals(fresh.getVisibleCount(), view.getVisibleCount());
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (fresh.isVisible(i, j) != view.isVisible(i, j)) {
+                        throw new AssertionError("tile " + i + "," + j + " differs after step " + step);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testActiveMutantsChaseAndAttack() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 5, new MeleeMutantCell());
+        engine.setActiveMutants(true);
+        assertEquals(1, engine.getMutants().size());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        // The mutant steps towards the player, and its cell moves with it
+        assertTrue(engine.getMap()[1][4] instanceof MeleeMutantCell);
+        assertEquals(CellType.EMPTY, engine.getMap()[1][5].getType());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(8, engine.getPlayer().getHealth());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(0, engine.getMutants().size());
+        assertEquals(2, engine.getPlayer().getGold());
+    }
+
+    @Test
+    void testManyActiveMutantsStayInSync() {
+        GameEngine big = new GameEngine(100, 100);
+        big.setStatusEcho(false);
+        big.setMaxSteps(Integer.MAX_VALUE);
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 1; i < 99; i++) {
+            for (int j = 1; j < 99; j++) {
+                int roll = random.nextInt(5);
+                big.replaceCell(i, j, roll == 0 ? new MeleeMutantCell() : roll == 1 ? new RangedMutantCell() : EmptyCell.INSTANCE);
+            }
+        }
+        big.replaceCell(1, 1, EmptyCell.INSTANCE);
+        big.replaceCell(1, 2, EmptyCell.INSTANCE);
+        big.getPlayer().setX(1);
+        big.getPlayer().setY(1);
+        big.setActiveMutants(true);
+        MutantSystem mutants = big.getMutants();
+        assertTrue(mutants.size() > 3000);
+        for (int turn = 0; turn < 50; turn++) {
+            big.getPlayer().setHealth(10);
+            big.movePlayer(turn % 2 == 0 ? GameEngine.Direction.RIGHT : GameEngine.Direction.LEFT);
+        }
+        int onMap = 0;
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                CellType type = big.getMap()[i][j].getType();
+                if (type == CellType.MELEE_MUTANT || type == CellType.RANGED_MUTANT) {
+                    onMap++;
+                    int slot = mutants.find(i, j);
+                    assertTrue(slot >= 0);
+                    assertEquals(i, mutants.getRow(slot));
+                    assertEquals(j, mutants.getCol(slot));
+                }
+            }
+        }
+        assertEquals(mutants.size(), onMap);
+    }
+
+    @Test
+    void testTimedEffects() {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        engine.setTimedEffects(true);
+        engine.replaceCell(1, 2, new TrapCell());
+        engine.replaceCell(3, 3, new MeleeMutantCell());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(8, engine.getPlayer().getHealth());
+        assertEquals('.', engine.getMap()[1][2].getSymbol());
+        // A sprung trap does no damage until it re-arms 10 turns later
+        engine.movePlayer(GameEngine.Direction.LEFT);
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(8, engine.getPlayer().getHealth());
+        for (int i = 0; i < 7; i++) {
+            engine.movePlayer(i % 2 == 0 ? GameEngine.Direction.LEFT : GameEngine.Direction.RIGHT);
+        }
+        assertEquals('.', engine.getMap()[1][2].getSymbol());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(6, engine.getPlayer().getHealth());
+
+        // A potion heals 1 HP a turn for 4 turns
+        engine.getPlayer().setHealth(3);
+        engine.replaceCell(2, 2, new HealthPotionCell());
+        engine.movePlayer(GameEngine.Direction.DOWN);
+        assertEquals(3, engine.getPlayer().getHealth());
+        for (int i = 0; i < 6; i++) {
+            engine.movePlayer(i % 2 == 0 ? GameEngine.Direction.UP : GameEngine.Direction.DOWN);
+        }
+        assertEquals(7, engine.getPlayer().getHealth());
+
+        // A defeated mutant comes back 30 turns later
+        engine.getPlayer().setX(3);
+        engine.getPlayer().setY(2);
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertEquals(CellType.EMPTY, engine.getMap()[3][3].getType());
+        engine.movePlayer(GameEngine.Direction.LEFT);
+        for (int i = 0; i < 28; i++) {
+            engine.movePlayer(i % 2 == 0 ? GameEngine.Direction.LEFT : GameEngine.Direction.RIGHT);
+        }
+        assertEquals(CellType.EMPTY, engine.getMap()[3][3].getType());
+        engine.movePlayer(GameEngine.Direction.LEFT);
+        assertEquals(CellType.MELEE_MUTANT, engine.getMap()[3][3].getType());
+        assertEquals(0, engine.getTurnScheduler().size());
+    }
+
+    @Test
+    void testTurnSchedulerFiresOnTime() {
+        TurnScheduler scheduler = new TurnScheduler();
+        long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 300000, TurnScheduler.MAX_DELAY};
+        for (int i = 0; i < delays.length; i++) {
+            scheduler.schedule(delays[i], i, 0, 0, 0, null);
+        }
+        int fired = 0;
+        for (long turn = 1; fired < delays.length; turn = Math.min(turn * 2 + 1, TurnScheduler.MAX_DELAY)) {
+            while (scheduler.poll(turn)) {
+                assertTrue(delays[scheduler.getKind()] <= turn);
+                assertTrue(delays[scheduler.getKind()] > turn / 2);
+                fired++;
+            }
+        }
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void testSeededGamesAreReproducible() {
+        GameEngine first = new GameEngine(30, 30, 3, 42L);
+        GameEngine second = new GameEngine(30, 30, 3, 42L);
+        for (GameEngine game : new GameEngine[] {first, second}) {
+            game.setStatusEcho(false);
+            game.setActiveMutants(true);
+            game.setMaxSteps(Integer.MAX_VALUE);
+        }
+        assertEquals(first.getSeed(), second.getSeed());
+        for (int turn = 0; turn < 200; turn++) {
+            GameEngine.Direction move = GameEngine.Direction.values()[(turn * 7 + turn / 5) % 4];
+            first.movePlayer(move);
+            second.movePlayer(move);
+        }
+        assertEquals(first.getPlayer().getHealth(), second.getPlayer().getHealth());
+        assertEquals(first.getPlayer().getGold(), second.getPlayer().getGold());
+        for (int i = 0; i < first.getHeight(); i++) {
+            for (int j = 0; j < first.getWidth(); j++) {
+                assertEquals(first.getMap()[i][j].getSymbol(), second.getMap()[i][j].getSymbol());
+            }
+        }
+        assertTrue(new GameEngine(30, 30, 3, 43L).getSeed() != first.getSeed());
+    }
+
+    @Test
+    void testVectorEnvIsReproducibleInParallel() {
+        try (VectorEnv serial = new VectorEnv(16, 10, 2, 50, 7L, 1);
+             VectorEnv parallel = new VectorEnv(16, 10, 2, 50, 7L, 4)) {
+            serial.reset();
+            parallel.reset();
+            assertEquals(25, serial.getObservationSize());
+            int[] actions = new int[16];
+            int dones = 0;
+            for (int step = 0; step < 200; step++) {
+                for (int i = 0; i < actions.length; i++) {
+                    actions[i] = (step * 3 + i + step / 7) % 4;
+                }
+                serial.step(actions);
+                parallel.step(actions);
+                assertArrayEquals(serial.getObservations(), parallel.getObservations());
+                assertArrayEquals(serial.getRewards(), parallel.getRewards());
+                for (int i = 0; i < actions.length; i++) {
+                    assertEquals(serial.getDones()[i], parallel.getDones()[i]);
+                    dones += serial.getDones()[i] ? 1 : 0;
+                }
+            }
+            // Every game runs out of steps at least once
+            assertTrue(dones >= 16);
+        }
+    }
+
+    @Test
+    void testSharedBoardExportMirrorsTheBoard() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("board", ".bin");
+        try (SharedBoardExport export = new SharedBoardExport(file)) {
+            clearInterior();
+            engine.getPlayer().setX(1);
+            engine.getPlayer().setY(1);
+            engine.setStatusEcho(false);
+            engine.setActiveMutants(true);
+            engine.replaceCell(3, 3, new MeleeMutantCell());
+            engine.setBoardObserver(export);
+            engine.replaceCell(2, 2, new GoldCell(1));
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+            engine.movePlayer(GameEngine.Direction.DOWN);
+            try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file)) {
+                java.nio.ByteBuffer shared = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                        .order(java.nio.ByteOrder.LITTLE_ENDIAN);
+                assertEquals(export.getSequence(), shared.getLong(0));
+                assertEquals(0, shared.getLong(0) % 2);
+                assertEquals(10, shared.getInt(12));
+                assertEquals(engine.getPlayer().getX(), shared.getInt(20));
+                assertEquals(engine.getPlayer().getY(), shared.getInt(24));
+                assertEquals(engine.getPlayer().getHealth(), shared.getInt(28));
+                assertEquals(engine.getPlayer().getGold(), shared.getInt(32));
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        assertEquals(engine.getMap()[i][j].getType().ordinal(),
+                                shared.get(SharedBoardExport.HEADER + i * 10 + j));
+                    }
+                }
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testSharedDungeonCollectsEachItemOnce() throws Exception {
+        SharedDungeon dungeon = new SharedDungeon(120, 5L);
+        int before = countRewards(dungeon);
+        assertTrue(before > 0);
+        for (int i = 1; dungeon.getPlayerCount() < 64; i++) {
+            int row = 1 + (i * 37) % 118;
+            int col = 1 + (i * 53) % 118;
+            if (dungeon.getMap()[row][col].getType() == CellType.EMPTY && dungeon.getOccupant(row, col) < 0) {
+                dungeon.addPlayer(row, col);
+            }
+        }
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                java.util.SplittableRandom random = new java.util.SplittableRandom(seed);
+                GameEngine.Direction[] directions = GameEngine.Direction.values();
+                for (int i = 0; i < 200000; i++) {
+                    dungeon.movePlayer(random.nextInt(64), directions[random.nextInt(4)]);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int collected = 0;
+        for (int id = 0; id < dungeon.getPlayerCount(); id++) {
+            collected += dungeon.getPlayer(id).getGold();
+            Player player = dungeon.getPlayer(id);
+            if (!dungeon.hasFinished(id) && !player.isDead()) {
+                assertEquals(id, dungeon.getOccupant(player.getX(), player.getY()));
+            } else {
+                // Players who left or died don't block their last tile
+                assertTrue(dungeon.getOccupant(player.getX(), player.getY()) != id);
+            }
+        }
+        assertTrue(collected > 0);
+        assertEquals(before - countRewards(dungeon), collected);
+    }
+
+    @Test
+    void testSharedDungeonAppliesTheSameRulesAsTheEngine() {
+        engine.setStatusEcho(false);
+        java.util.List<java.util.function.Supplier<Cell>> cells = java.util.List.of(
+                () -> new GoldCell(2), TrapCell::new, HealthPotionCell::new,
+                MeleeMutantCell::new, RangedMutantCell::new);
+        for (java.util.function.Supplier<Cell> cell : cells) {
+            clearInterior();
+            engine.getPlayer().setX(1);
+            engine.getPlayer().setY(1);
+            engine.getPlayer().setHealth(6);
+            engine.replaceCell(1, 2, cell.get());
+            Player single = engine.getPlayer();
+            int gold = single.getGold();
+            int health = single.getHealth();
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+
+            SharedDungeon dungeon = new SharedDungeon(20, 3L);
+            dungeon.getMap()[1][1] = EmptyCell.INSTANCE;
+            dungeon.getMap()[1][2] = cell.get();
+            int id = dungeon.addPlayer(1, 1);
+            Player shared = dungeon.getPlayer(id);
+            shared.setHealth(6);
+            int sharedGold = shared.getGold();
+            int sharedHealth = shared.getHealth();
+            dungeon.movePlayer(id, GameEngine.Direction.RIGHT);
+
+            String type = cell.get().getType().toString();
+            assertEquals(single.getGold() - gold, shared.getGold() - sharedGold, type);
+            assertEquals(single.getHealth() - health, shared.getHealth() - sharedHealth, type);
+            assertEquals(engine.getCell(1, 2).getType(), dungeon.getMap()[1][2].getType(), type);
+        }
+    }
+
+    @Test
+    void testBroadcastDeltasRebuildTheBoard() throws Exception {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        try (BoardBroadcaster broadcaster = new BoardBroadcaster(
+                new java.net.InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), 0), 64, 8);
+             java.nio.channels.SocketChannel client = java.nio.channels.SocketChannel.open(broadcaster.getAddress())) {
+            while (broadcaster.getSubscriberCount() == 0) {
+                Thread.sleep(1);
+            }
+            engine.setBoardObserver(broadcaster);
+            engine.replaceCell(1, 2, new GoldCell(1));
+            for (int i = 0; i < 20; i++) {
+                engine.movePlayer(i % 2 == 0 ? GameEngine.Direction.RIGHT : GameEngine.Direction.LEFT);
+            }
+            java.io.DataInputStream in = new java.io.DataInputStream(java.nio.channels.Channels.newInputStream(client));
+            byte[] board = null;
+            int[] stats = new int[7];
+            int keyframes = 0;
+            while (stats[4] < 20) {
+                in.readInt();
+                byte type = in.readByte();
+                in.readLong();
+                if (type == BoardBroadcaster.KEYFRAME) {
+                    keyframes++;
+                    board = new byte[in.readInt() * in.readInt()];
+                }
+                for (int i = 0; i < stats.length; i++) {
+                    stats[i] = in.readInt();
+                }
+                if (type == BoardBroadcaster.KEYFRAME) {
+                    in.readFully(board);
+                } else {
+                    for (int count = in.readInt(); count > 0; count--) {
+                        int index = in.readInt();
+                        board[index] = in.readByte();
+                    }
+                }
+                for (int count = in.readInt(); count > 0; count--) {
+                    in.skipBytes(in.readShort());
+                }
+            }
+            assertTrue(keyframes >= 3);
+            assertEquals(engine.getPlayer().getX(), stats[0]);
+            assertEquals(engine.getPlayer().getY(), stats[1]);
+            assertEquals(engine.getPlayer().getGold(), stats[3]);
+            for (int i = 0; i < 10; i++) {
+                for (int j = 0; j < 10; j++) {
+                    assertEquals(engine.getMap()[i][j].getType().ordinal(), board[i * 10 + j]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIdleBroadcasterDoesNotAllocateAndFreesItsSocket() throws Exception {
+        clearInterior();
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("broadcast");
+        java.net.UnixDomainSocketAddress address = java.net.UnixDomainSocketAddress.of(dir.resolve("game.sock"));
+        try {
+            try (BoardBroadcaster broadcaster = new BoardBroadcaster(address, 64, 8)) {
+                engine.setBoardObserver(broadcaster);
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+                for (int i = 0; i < 4000; i++) {
+                    engine.movePlayer(GameEngine.Direction.RIGHT);
+                    engine.movePlayer(GameEngine.Direction.LEFT);
+                }
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < 1000; i++) {
+                    engine.movePlayer(GameEngine.Direction.RIGHT);
+                    engine.movePlayer(GameEngine.Direction.LEFT);
+                }
+                long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+                assertTrue(allocated < 2000, "allocated " + allocated + " bytes for 2000 moves");
+                engine.setBoardObserver(null);
+            }
+            // The socket file is gone, so the same path can be bound again
+            assertFalse(java.nio.file.Files.exists(address.getPath()));
+            new BoardBroadcaster(address, 64, 8).close();
+        } finally {
+            java.nio.file.Files.deleteIfExists(address.getPath());
+            java.nio.file.Files.delete(dir);
+        }
+    }
+
+    @Test
+    void testEventPublisherBatchesMovesAndDropsForSlowSubscribers() {
+        engine.setStatusEcho(false);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        java.util.List<GameEvent> received = new java.util.ArrayList<>();
+        java.util.List<java.util.concurrent.Flow.Subscription> stalled = new java.util.ArrayList<>();
+        try (GameEventPublisher events = new GameEventPublisher(Runnable::run, 1, GameEventPublisher.Overflow.DROP)) {
+            engine.setEventPublisher(events);
+            events.subscribe(new java.util.concurrent.Flow.Subscriber<java.util.List<GameEvent>>() {
+                public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+                public void onNext(java.util.List<GameEvent> batch) { received.addAll(batch); }
+                public void onError(Throwable error) { }
+                public void onComplete() { }
+            });
+            // Never asks for anything, so its buffer fills up
+            events.subscribe(new java.util.concurrent.Flow.Subscriber<java.util.List<GameEvent>>() {
+                public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) { stalled.add(subscription); }
+                public void onNext(java.util.List<GameEvent> batch) { }
+                public void onError(Throwable error) { }
+                public void onComplete() { }
+            });
+            long first = engine.getStatusCount();
+            for (int i = 0; i < 10; i++) {
+                engine.movePlayer(i % 2 == 0 ? GameEngine.Direction.UP : GameEngine.Direction.DOWN);
+            }
+            engine.applyMoves("udud");
+            assertEquals(engine.getStatusCount() - first, received.size());
+            for (int i = 0; i < received.size(); i++) {
+                assertEquals(first + i, received.get(i).getSequence());
+                assertEquals(engine.getStatus(first + i), received.get(i).getMessage());
+            }
+            assertEquals(1, stalled.size());
+            assertTrue(events.getDroppedBatches() >= 9);
+        }
+    }
+
+    @Test
+    void testDeepRunThroughManyLevels() {
+        engine.setMaxLevel(2000);
+        engine.setMaxSteps(Integer.MAX_VALUE);
+        engine.setStatusEcho(false);
+        engine.setLevelPrefetch(true);
+        for (int i = 1; i < 2000; i++) {
+            Player player = engine.getPlayer();
+            player.setX(1);
+            player.setY(1);
+            engine.replaceCell(1, 2, new LadderCell());
+            engine.movePlayer(GameEngine.Direction.RIGHT);
+        }
+        assertEquals(2000, engine.getLevel());
+        assertFalse(engine.isGameOver());
+        assertEquals(LevelManager.DEFAULT_MAX_SIZE, engine.getHeight());
+        engine.getPlayer().setX(1);
+        engine.getPlayer().setY(1);
+        engine.replaceCell(1, 2, new LadderCell());
+        engine.movePlayer(GameEngine.Direction.RIGHT);
+        assertTrue(engine.hasWon());
+    }
+
+    /**
+     * Replaces every non-wall cell with an empty cell so tests are not affected by random items.
+     */
+    private void clearInterior() {
+        for (int i = 1; i < engine.getHeight() - 1; i++) {
+            for (int j = 1; j < engine.getWidth() - 1; j++) {
+                engine.replaceCell(i, j, new EmptyCell());
+            }
+        }
+    }
+
+    /**
+     * Returns the gold still to be won in a shared dungeon: 2 for each gold and mutant.
+     */
+    private int countRewards(SharedDungeon dungeon) {
+        int total = 0;
+        for (Cell[] row : dungeon.getMap()) {
+            for (Cell cell : row) {
+                CellType type = cell.getType();
+                if (type == CellType.GOLD || type == CellType.MELEE_MUTANT || type == CellType.RANGED_MUTANT) {
+                    total += 2;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,80 @@
+package dungeon.gui;
+
+import dungeon.engine.CellType;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.StackPane;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Supplies the JavaFX rendering for each {@link CellType}. The engine has no JavaFX dependency,
+ * so this is the only place that knows how a cell looks in the GUI.
+ * Images are decoded once, on a background thread, and shared by every node that shows them;
+ * a tile stays blank until its image has loaded, so the first frame doesn't wait for decoding.
+ */
+public class CellSprites {
+    private static final double CELL_SIZE = 40;
+
+    private final Map<CellType, Image> images = new EnumMap<>(CellType.class);
+
+    /**
+     * Returns the node for a cell symbol (see {@link dungeon.engine.Cell#getSymbol()}).
+     * @param symbol the cell symbol
+     * @return the node
+     */
+    public Node create(char symbol) {
+        CellType type = CellType.fromSymbol(symbol);
+        return type == null ? new StackPane() : create(type);
+    }
+
+    /**
+     * Returns the node for a cell type.
+     * @param type the cell type
+     * @return the node
+     */
+    public Node create(CellType type) {
+        StackPane pane = new StackPane();
+        String resource = resourceFor(type);
+        if (resource != null) {
+            pane.getChildren().add(imageView(type, resource));
+        }
+        return pane;
+    }
+
+    /**
+     * Returns the node for the player.
+     * @return the node
+     */
+    public Node createPlayer() {
+        return create(CellType.PLAYER);
+    }
+
+    private ImageView imageView(CellType type, String resource) {
+        Image image = images.computeIfAbsent(type,
+                k -> new Image(getClass().getResource(resource).toExternalForm(), true));
+        ImageView imageView = new ImageView(image);
+        imageView.setFitWidth(CELL_SIZE);
+        imageView.setFitHeight(CELL_SIZE);
+        return imageView;
+    }
+
+    /**
+     * Returns the image resource for a cell type, or null for cells drawn as empty.
+     */
+    private static String resourceFor(CellType type) {
+        switch (type) {
+            case WALL: return "/wall.png";
+            case GOLD: return "/gold.png";
+            case TRAP: return "/trap.png";
+            case MELEE_MUTANT: return "/malee-mutant.png";
+            case RANGED_MUTANT: return "/ranged-mutant.png";
+            case HEALTH_POTION: return "/health-potion.png";
+            case LADDER: return "/ladder.png";
+            case PLAYER: return "/player.png";
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package dungeon.gui;
+
+import dungeon.engine.*;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.Node;
+import javafx.stage.FileChooser;
+import java.io.*;
+import java.util.Optional;
+import javafx.scene.layout.StackPane;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * The main controller for the MiniDungeon JavaFX GUI.
+ * Handles user input, updates the game state, and manages the GUI components.
+ * The game itself runs on the {@link GameLoop} engine thread: buttons and keys submit commands,
+ * and a frame timer renders the latest {@link RenderSnapshot} whenever a new one is published.
+ */
+public class Controller {
+    @FXML private GridPane gridPane;
+    @FXML private Label goldLabel;
+    @FXML private Label healthLabel;
+    @FXML private Label stepsLabel;
+    @FXML private ListView<String> gameLog;
+    @FXML private Button upButton;
+    @FXML private Button downButton;
+    @FXML private Button leftButton;
+    @FXML private Button rightButton;
+    @FXML private Button helpButton;
+    @FXML private Button saveButton;
+    @FXML private Button loadButton;
+    @FXML private Spinner<Integer> difficultySpinner;
+    @FXML private ListView<String> topScoresList;
+    @FXML private Label scoreLabel;
+
+    private static final int BOARD_SIZE = 10;
+    private static final int DEFAULT_DIFFICULTY = 3;
+    private GameLoop gameLoop;
+    private final CellSprites sprites = new CellSprites();
+    private AnimationTimer frameTimer;
+    private RenderSnapshot snapshot;
+    private long renderedVersion = -1;
+    private int handledGameOverId = -1;
+    private static final String SAVE_FILE = "minidungeon_save.dat";
+    private static final String AUTOSAVE_FILE = "minidungeon_autosave.dat";
+    private static final String TOP_SCORES_FILE = "top_scores.dat";
+    private LogBuffer logBuffer;
+    private boolean logScrollPending;
+    private List<ScoreEntry> topScores = new ArrayList<>();
+
+    /**
+     * Initializes the controller and starts a new game on the engine thread.
+     */
+    @FXML
+    public void initialize() {
+        gameLoop = new GameLoop(BOARD_SIZE, BOARD_SIZE);
+        gameLoop.start(DEFAULT_DIFFICULTY);
+        // Autosaves every minute by default; -Dminidungeon.autosaveSeconds=0 turns it off
+        int autosaveSeconds = Integer.getInteger("minidungeon.autosaveSeconds", 60);
+        if (autosaveSeconds > 0) {
+            gameLoop.setAutosave(new File(AUTOSAVE_FILE), autosaveSeconds * 1000L);
+        }
+        initializeLog();
+        logMessage("Welcome to MiniDungeon! Use the arrow buttons to move.");
+        frameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onFrame();
+            }
+        };
+        frameTimer.start();
+    }
+
+    /**
+     * Stops the frame timer and the engine thread.
+     */
+    public void shutdown() {
+        if (frameTimer != null) {
+            frameTimer.stop();
+        }
+        if (gameLoop != null) {
+            gameLoop.shutdown();
+        }
+        if (logBuffer != null) {
+            logBuffer.closeSpill();
+        }
+    }
+
+    /**
+     * Sets up the game log. The number of messages shown comes from the
+     * {@code minidungeon.logCapacity} system property; older messages are spilled to a temporary
+     * file so the full log can still be exported.
+     */
+    private void initializeLog() {
+        logBuffer = new LogBuffer(Integer.getInteger("minidungeon.logCapacity", LogBuffer.DEFAULT_CAPACITY));
+        try {
+            File spillFile = File.createTempFile("minidungeon-log", ".txt");
+            spillFile.deleteOnExit();
+            logBuffer.setSpillFile(spillFile);
+        } catch (IOException e) {
+            System.out.println("[DEBUG] Error creating log spill file: " + e.getMessage());
+        }
+        gameLog.setItems(logBuffer);
+    }
+
+    /**
+     * Runs once per frame: handles messages from the engine thread and renders the latest snapshot
+     * if it has changed since the last frame.
+     */
+    private void onFrame() {
+        GameLoop.Notice notice;
+        while ((notice = gameLoop.pollNotice()) != null) {
+            handleNotice(notice);
+        }
+        if (logScrollPending) {
+            gameLog.scrollTo(logBuffer.size() - 1);
+            logScrollPending = false;
+        }
+        RenderSnapshot latest = gameLoop.getSnapshot();
+        if (latest == null || latest.getVersion() == renderedVersion) {
+            return;
+        }
+        RenderSnapshot previous = snapshot;
+        snapshot = latest;
+        renderedVersion = latest.getVersion();
+        updateGameGrid();
+        updateStatus();
+        checkGameState(previous);
+        if (previous == null) {
+            StartupTimer.firstFrame();
+            // The leaderboard isn't needed to play, so read it once the board is on screen
+            Platform.runLater(this::updateTopScoresDisplay);
+        }
+    }
+
+    /**
+     * Updates the game grid display based on the current snapshot.
+     */
+    public void updateGameGrid() {
+        gridPane.getChildren().clear();
+        for (int row = 0; row < snapshot.getHeight(); row++) {
+            for (int col = 0; col < snapshot.getWidth(); col++) {
+                StackPane cellPane = new StackPane();
+                // Add the cell's node
+                cellPane.getChildren().add(sprites.create(snapshot.getSymbol(row, col)));
+                // If player is at this position, add the player node on top
+                if (snapshot.getPlayerX() == row && snapshot.getPlayerY() == col) {
+                    cellPane.getChildren().add(sprites.createPlayer());
+                }
+                gridPane.add(cellPane, col, row);
+            }
+        }
+    }
+
+    /**
+     * Updates the status labels (health, gold, steps, score).
+     */
+    public void updateStatus() {
+        goldLabel.setText("Gold: " + snapshot.getGold());
+        healthLabel.setText("Health: " + snapshot.getHealth() + "/100");
+        stepsLabel.setText("Steps: " + snapshot.getSteps());
+        scoreLabel.setText("Score: " + snapshot.getGold());
+    }
+
+    /**
+     * Appends a message to the game log. The log scrolls to the newest message on the next frame.
+     * @param message the message to log
+     */
+    public void logMessage(String message) {
+        logBuffer.append(message);
+        logScrollPending = true;
+    }
+
+    /**
+     * Handles the export log button action (write the full game log to a chosen file).
+     */
+    @FXML
+    private void handleExportLogButton() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Game Log");
+        chooser.setInitialFileName("minidungeon_log.txt");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text files", "*.txt"));
+        File file = chooser.showSaveDialog(gameLog.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            logBuffer.export(file);
+            logMessage("Game log exported to " + file.getName());
+        } catch (IOException e) {
+            showErrorAlert("Export Error", "Could not export the game log.", e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a message from the engine thread.
+     * @param notice the message
+     */
+    private void handleNotice(GameLoop.Notice notice) {
+        switch (notice.getKind()) {
+            case STATUS:
+                if (notice.getText().equals("ADVANCE_LEVEL_UPDATE_TOP_SCORE")) {
+                    updateTopScores(currentScore());
+                } else {
+                    logMessage(notice.getText());
+                }
+                break;
+            case SAVED:
+                saveButton.setText("SAVE");
+                logMessage(notice.getText());
+                updateTopScores(currentScore());
+                break;
+            case SAVE_PROGRESS:
+                saveButton.setText(notice.getText());
+                break;
+            case LOAD_PROGRESS:
+                loadButton.setText(notice.getText());
+                break;
+            case LOADED:
+                loadButton.setText("LOAD");
+                logMessage(notice.getText());
+                break;
+            case AUTOSAVED:
+                break;
+            case SAVE_ERROR:
+                saveButton.setText("SAVE");
+                logMessage(notice.getText());
+                Platform.runLater(() -> showErrorAlert("Save Error", "Could not save the game.", notice.getText()));
+                break;
+            case LOAD_ERROR:
+                loadButton.setText("LOAD");
+                logMessage(notice.getText());
+                Platform.runLater(() -> showErrorAlert("Load Error", "Could not load the game.", notice.getText()));
+                break;
+            default:
+                logMessage(notice.getText());
+                break;
+        }
+    }
+
+    private int currentScore() {
+        return snapshot == null ? 0 : snapshot.getGold();
+    }
+
+    /**
+     * Applies moves queued from the keyboard. The moves run on the engine thread and the result
+     * is rendered on the next frame after they finish.
+     * @param moves the queued moves
+     * @param count the number of moves to apply from the start of the array
+     */
+    public void applyMoves(GameEngine.Direction[] moves, int count) {
+        if (count == 0 || (snapshot != null && snapshot.isGameOver())) {
+            return;
+        }
+        gameLoop.move(moves, count);
+    }
+
+    /**
+     * Handles the up button action (move player up).
+     */
+    @FXML
+    private void handleUpButton() {
+        gameLoop.move(GameEngine.Direction.UP);
+    }
+
+    /**
+     * Handles the down button action (move player down).
+     */
+    @FXML
+    private void handleDownButton() {
+        gameLoop.move(GameEngine.Direction.DOWN);
+    }
+
+    /**
+     * Handles the left button action (move player left).
+     */
+    @FXML
+    private void handleLeftButton() {
+        gameLoop.move(GameEngine.Direction.LEFT);
+    }
+
+    /**
+     * Handles the right button action (move player right).
+     */
+    @FXML
+    private void handleRightButton() {
+        gameLoop.move(GameEngine.Direction.RIGHT);
+    }
+
+    /**
+     * Handles the help button action (show instructions).
+     */
+    @FXML
+    private void handleHelpButton() {
+        String helpText = """
+            MiniDungeon Game Instructions:
+            
+            • Use the arrow buttons to move your character
+            • Collect gold to increase your score
+            • Avoid traps and enemies
+            • Find the exit to complete the level
+            • Health potions restore 20 HP
+            • Melee mutants deal 10 damage
+            • Ranged mutants deal 5 damage
+            • Traps deal 15 damage
+            
+            Good luck adventurer!""";
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Game Help");
+        alert.setHeaderText("MiniDungeon Instructions");
+        alert.setContentText(helpText);
+        alert.showAndWait();
+    }
+
+    /**
+     * Shows an error alert dialog to the user.
+     * @param title the alert title
+     * @param header the alert header
+     * @param content the alert content
+     */
+    private void showErrorAlert(String title, String header, String content) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(header);
+        alert.setContentText(content);
+        alert.showAndWait();
+    }
+
+    /**
+     * Handles the save button action (the game is copied on the engine thread and written in
+     * the background; the button shows the progress).
+     */
+    @FXML
+    private void handleSaveButton() {
+        gameLoop.save(new File(SAVE_FILE));
+    }
+
+    /**
+     * Handles the load button action (the game is read in the background and swapped in on the
+     * engine thread; the button shows the progress).
+     */
+    @FXML
+    private void handleLoadButton() {
+        gameLoop.load(new File(SAVE_FILE));
+    }
+
+    /**
+     * Handles the run button action (start a new game with selected difficulty).
+     */
+    @FXML
+    private void handleRunButton() {
+        int difficulty = DEFAULT_DIFFICULTY;
+        if (difficultySpinner != null) {
+            try {
+                difficulty = difficultySpinner.getValue();
+            } catch (Exception e) {
+                difficulty = DEFAULT_DIFFICULTY;
+            }
+        }
+        gameLoop.newGame(difficulty);
+    }
+
+    /**
+     * Handles the Top Score button action (show top scores popup).
+     */
+    @FXML
+    private void handleLoadHighScoreButton() {
+        loadTopScores();
+        StringBuilder sb = new StringBuilder();
+        int rank = 1;
+        for (ScoreEntry entry : topScores) {
+            sb.append("#").append(rank).append(" ")
+                    .append(entry.getScore()).append(" ")
+                    .append(entry.getDate()).append("\n");
+            rank++;
+        }
+        if (topScores.isEmpty()) {
+            sb.append("No top scores yet.");
+        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Top 5 Scores");
+        alert.setHeaderText("Top 5 Scores");
+        alert.setContentText(sb.toString());
+        alert.showAndWait();
+    }
+
+    /**
+     * Checks the game state for win/lose/level up and handles transitions.
+     * @param previous the snapshot rendered before the current one, or null
+     */
+    private void checkGameState(RenderSnapshot previous) {
+        if (snapshot.isGameOver()) {
+            if (snapshot.getGameId() == handledGameOverId) {
+                return;
+            }
+            handledGameOverId = snapshot.getGameId();
+            String message;
+            int finalScore = snapshot.getGold();
+            if (snapshot.hasWon()) {
+                boolean isTopScore = updateTopScores(finalScore);
+                message = "Congratulations! You've completed the dungeon!\nFinal Score: " + finalScore;
+                if (isTopScore) {
+                    message += "\nNew Top 5 Score!";
+                }
+            } else {
+                updateTopScores(-1);
+                message = "Game Over! You've been defeated.\nFinal Score: -1";
+            }
+            String content = message;
+            // Dialogs can't block inside a frame callback, so show it once the frame is done
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Game Over");
+                alert.setHeaderText(null);
+                alert.setContentText(content);
+                alert.showAndWait();
+                // Reset the game
+                gameLoop.newGame(DEFAULT_DIFFICULTY);
+                logMessage("Welcome to MiniDungeon! Use the arrow buttons to move.");
+            });
+        } else if (previous != null && previous.getGameId() == snapshot.getGameId()
+                && snapshot.getLevel() > previous.getLevel()) {
+            int level = snapshot.getLevel();
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Level Up");
+                alert.setHeaderText(null);
+                alert.setContentText("You have advanced to Level " + level + "! Difficulty increased.");
+                alert.showAndWait();
+            });
+        }
+    }
+
+    /**
+     * Loads the top scores from file.
+     */
+    private void loadTopScores() {
+        File file = new File(TOP_SCORES_FILE);
+        if (!file.exists()) {
+            System.out.println("[DEBUG] Top scores file does not exist.");
+            return;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            topScores = (List<ScoreEntry>) ois.readObject();
+            System.out.println("[DEBUG] Loaded top scores: " + topScores);
+        } catch (Exception e) {
+            System.out.println("[DEBUG] Error loading top scores: " + e.getMessage());
+            topScores = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Saves the top scores to file.
+     */
+    private void saveTopScores() {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(TOP_SCORES_FILE))) {
+            oos.writeObject(topScores);
+            System.out.println("[DEBUG] Saved top scores: " + topScores);
+        } catch (IOException e) {
+            System.out.println("[DEBUG] Error saving top scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Updates the top scores list and returns true if the score is in the top 5.
+     * @param score the score to add
+     * @return true if the score is in the top 5
+     */
+    private boolean updateTopScores(int score) {
+        LeaderboardUpdateEvent event = new LeaderboardUpdateEvent();
+        event.begin();
+        loadTopScores();
+        ScoreEntry entry = new ScoreEntry(score, LocalDate.now());
+        topScores.add(entry);
+        Collections.sort(topScores);
+        if (topScores.size() > 5) {
+            topScores = topScores.subList(0, 5);
+        }
+        saveTopScores();
+        updateTopScoresDisplay();
+        // Return true if this score is in the top 5
+        boolean isTopScore = topScores.contains(entry);
+        event.end();
+        if (event.shouldCommit()) {
+            event.score = score;
+            event.entries = topScores.size();
+            event.topScore = isTopScore;
+            event.commit();
+        }
+        return isTopScore;
+    }
+
+    /**
+     * Updates the top scores display in the GUI.
+     */
+    private void updateTopScoresDisplay() {
+        loadTopScores();
+        if (topScoresList != null) {
+            topScoresList.getItems().clear();
+            int rank = 1;
+            for (ScoreEntry entry : topScores) {
+                String dateStr = entry.getDate().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+                topScoresList.getItems().add("#" + rank + " " + entry.getScore() + " " + dateStr);
+                rank++;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dungeon.gui;
+
+import dungeon.engine.*;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.control.Label;
+import javafx.stage.Stage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * GUI for the Maze Runner Game.
+ *
+ * NOTE: Do NOT run this class directly in IntelliJ - run 'RunGame' instead.
+ */
+public class GameGUI extends Application {
+    private Controller controller;
+    private InputQueue inputQueue;
+    private GridPane gridPane;
+    private Label statusLabel;
+    private Label goldLabel;
+    private Label healthLabel;
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        // Show the stage straight away and build the game UI on the next pulse
+        Scene scene = new Scene(new StackPane(new Label("Loading MiniDungeon...")), 1000, 800);
+        primaryStage.setScene(scene);
+        primaryStage.setTitle("MiniDungeon Game");
+        primaryStage.setOnShown(event -> StartupTimer.stageShown());
+        primaryStage.show();
+        Platform.runLater(() -> loadGame(scene));
+    }
+
+    /**
+     * Loads the game UI into the scene and starts taking key presses.
+     * @param scene the scene shown by the stage
+     */
+    private void loadGame(Scene scene) {
+        // Load FXML
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/dungeon/gui/game_gui.fxml"));
+        BorderPane root;
+        try {
+            root = loader.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load the game UI", e);
+        }
+
+        // Get controller (FXMLLoader has already called initialize and started a game)
+        controller = (Controller) loader.getController();
+        scene.setRoot(root);
+
+        // Key presses are queued and applied once per frame, so key-repeat can't flood the FX thread
+        int movesPerSecond = Integer.getInteger("minidungeon.movesPerSecond", InputQueue.DEFAULT_MOVES_PER_SECOND);
+        inputQueue = new InputQueue(controller, movesPerSecond, InputQueue.DEFAULT_CAPACITY);
+        scene.setOnKeyPressed(event -> {
+            switch (event.getCode()) {
+                case UP:
+                    inputQueue.offer(GameEngine.Direction.UP);
+                    break;
+                case DOWN:
+                    inputQueue.offer(GameEngine.Direction.DOWN);
+                    break;
+                case LEFT:
+                    inputQueue.offer(GameEngine.Direction.LEFT);
+                    break;
+                case RIGHT:
+                    inputQueue.offer(GameEngine.Direction.RIGHT);
+                    break;
+                default:
+                    return;
+            }
+            event.consume();
+        });
+        inputQueue.start();
+    }
+
+    @Override
+    public void stop() {
+        if (inputQueue != null) {
+            inputQueue.stop();
+        }
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
+    /** In IntelliJ, do NOT run this method.  Run 'RunGame.main()' instead. */
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
@@ -0,0 +1,117 @@
+package dungeon.gui;
+
+import dungeon.engine.GameEngine;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Collects key presses and applies them to the game once per frame.
+ * Key-repeat can fire far faster than the game needs, so moves are queued in a small ring buffer
+ * and drained on each {@link AnimationTimer} tick at a configurable rate, with at most one
+ * grid render per frame. When the queue is full further key presses are dropped, so releasing
+ * a held key stops the player almost immediately.
+ */
+public class InputQueue extends AnimationTimer {
+    /** The default number of moves applied per second while a key is held. */
+    public static final int DEFAULT_MOVES_PER_SECOND = 12;
+    /** The default number of key presses that can be waiting at once. */
+    public static final int DEFAULT_CAPACITY = 4;
+    /** The most moves applied in a single frame, however long the frame took. */
+    private static final int MAX_MOVES_PER_FRAME = 8;
+
+    private final Controller controller;
+    private final GameEngine.Direction[] queue;
+    private final GameEngine.Direction[] batch = new GameEngine.Direction[MAX_MOVES_PER_FRAME];
+    private int head;
+    private int size;
+    private long nanosPerMove;
+    private long lastFrame = -1;
+    private long credit;
+
+    /**
+     * Creates an input queue with the default rate and capacity.
+     * @param controller the controller that applies moves and renders the game
+     */
+    public InputQueue(Controller controller) {
+        this(controller, DEFAULT_MOVES_PER_SECOND, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an input queue.
+     * @param controller the controller that applies moves and renders the game
+     * @param movesPerSecond the maximum number of moves applied per second
+     * @param capacity the number of key presses that can be waiting at once
+     */
+    public InputQueue(Controller controller, int movesPerSecond, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.controller = controller;
+        this.queue = new GameEngine.Direction[capacity];
+        setMovesPerSecond(movesPerSecond);
+    }
+
+    /**
+     * Sets the maximum number of moves applied per second.
+     * @param movesPerSecond the move rate
+     */
+    public void setMovesPerSecond(int movesPerSecond) {
+        if (movesPerSecond < 1) {
+            throw new IllegalArgumentException("movesPerSecond must be at least 1");
+        }
+        this.nanosPerMove = 1_000_000_000L / movesPerSecond;
+    }
+
+    /**
+     * Queues a move. Called from the key handler; does no game work itself.
+     * @param dir the direction to move
+     * @return true if the move was queued, false if the queue was full
+     */
+    public boolean offer(GameEngine.Direction dir) {
+        if (size == queue.length) {
+            return false;
+        }
+        queue[(head + size) % queue.length] = dir;
+        size++;
+        return true;
+    }
+
+    /**
+     * Discards any queued moves (e.g. when a new game starts).
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        credit = 0;
+    }
+
+    /**
+     * Applies the moves allowed by the move rate since the last frame and renders once.
+     * @param now the frame timestamp in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if (lastFrame < 0) {
+            // First move of a burst is applied straight away
+            credit = nanosPerMove;
+        } else {
+            credit = Math.min(credit + (now - lastFrame), nanosPerMove * MAX_MOVES_PER_FRAME);
+        }
+        lastFrame = now;
+        if (size == 0) {
+            // Don't bank time while idle, otherwise the next key press would apply a burst
+            credit = Math.min(credit, nanosPerMove);
+            return;
+        }
+        int count = 0;
+        while (size > 0 && credit >= nanosPerMove && count < batch.length) {
+            batch[count++] = queue[head];
+            queue[head] = null;
+            head = (head + 1) % queue.length;
+            size--;
+            credit -= nanosPerMove;
+        }
+        if (count > 0) {
+            controller.applyMoves(batch, count);
+        }
+    }
+}
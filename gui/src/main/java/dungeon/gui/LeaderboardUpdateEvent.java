@@ -0,0 +1,23 @@
+package dungeon.gui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for an update of the top scores file.
+ */
+@Name("dungeon.LeaderboardUpdate")
+@Label("Leaderboard Update")
+@Category({"MiniDungeon", "Persistence"})
+class LeaderboardUpdateEvent extends Event {
+    @Label("Score")
+    int score;
+
+    @Label("Entries")
+    int entries;
+
+    @Label("Top Score")
+    boolean topScore;
+}
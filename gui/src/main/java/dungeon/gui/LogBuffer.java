@@ -0,0 +1,163 @@
+package dungeon.gui;
+
+import javafx.collections.ObservableListBase;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The game log shown in the GUI: an observable list of the most recent messages, backed by a
+ * fixed-size ring buffer. Adding a message costs the same however long the session runs, and a
+ * {@link javafx.scene.control.ListView} showing the list only creates cells for the visible rows.
+ * <p>
+ * Messages that drop out of the buffer can be written to a spill file, so the full log can still
+ * be exported with {@link #export(File)}. Use the buffer from the JavaFX application thread.
+ */
+public class LogBuffer extends ObservableListBase<String> {
+    /**
+     * The number of messages kept when no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private final String[] messages;
+    private int head;
+    private int size;
+    private File spillFile;
+    private Writer spill;
+
+    /**
+     * Creates a log that keeps the given number of messages.
+     * @param capacity the maximum number of messages shown
+     */
+    public LogBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.messages = new String[capacity];
+    }
+
+    /**
+     * Writes messages that drop out of the buffer to the given file, so {@link #export(File)} can
+     * include them. The file is overwritten.
+     * @param file the spill file, or null to discard old messages
+     * @throws IOException if the file cannot be opened
+     */
+    public void setSpillFile(File file) throws IOException {
+        closeSpill();
+        spillFile = file;
+        if (file != null) {
+            spill = new BufferedWriter(new FileWriter(file));
+        }
+    }
+
+    /**
+     * Adds a message at the end of the log, dropping the oldest message if the log is full.
+     * @param message the message
+     */
+    public void append(String message) {
+        beginChange();
+        if (size == messages.length) {
+            String oldest = messages[head];
+            messages[head] = message;
+            head = head + 1 == messages.length ? 0 : head + 1;
+            nextRemove(0, oldest);
+            nextAdd(size - 1, size);
+            spill(oldest);
+        } else {
+            int tail = head + size;
+            messages[tail >= messages.length ? tail - messages.length : tail] = message;
+            size++;
+            nextAdd(size - 1, size);
+        }
+        endChange();
+    }
+
+    private void spill(String message) {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.write(message);
+            spill.write('\n');
+        } catch (IOException e) {
+            // Keep the game running; the export will just miss the older messages
+            closeSpill();
+        }
+    }
+
+    /**
+     * Writes the full log to a file: any spilled messages followed by the messages still shown.
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void export(File file) throws IOException {
+        if (spill != null) {
+            spill.flush();
+        }
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+            if (spillFile != null && spillFile.exists()) {
+                try (BufferedReader in = new BufferedReader(new FileReader(spillFile))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        out.write(line);
+                        out.newLine();
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                out.write(get(i));
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Closes the spill file, if there is one.
+     */
+    public void closeSpill() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                // Nothing more to do; the spilled messages are only needed for export
+            }
+            spill = null;
+        }
+    }
+
+    /**
+     * Returns a message.
+     * @param index the index, where 0 is the oldest message shown
+     * @return the message
+     */
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int i = head + index;
+        return messages[i >= messages.length ? i - messages.length : i];
+    }
+
+    /**
+     * Returns the number of messages shown.
+     * @return the size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of messages shown.
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return messages.length;
+    }
+}
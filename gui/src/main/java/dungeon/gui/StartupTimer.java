@@ -0,0 +1,56 @@
+package dungeon.gui;
+
+import javafx.application.Platform;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records how long the GUI takes to start, measured from JVM start.
+ * <p>
+ * When the {@code minidungeon.startupBenchmark} system property is true, the times are printed
+ * as one line (e.g. {@code startup: stage-shown=310 ms first-frame=420 ms}) once the first game
+ * frame has been rendered, and the application exits. The Gradle {@code startupBenchmark} and
+ * {@code cdsArchive} tasks use this mode.
+ */
+public final class StartupTimer {
+    private static long stageShownMillis = -1;
+    private static long firstFrameMillis = -1;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that the stage is showing. Only the first call counts.
+     */
+    public static void stageShown() {
+        if (stageShownMillis < 0) {
+            stageShownMillis = uptime();
+        }
+    }
+
+    /**
+     * Records that the first game frame has been rendered. Only the first call counts.
+     */
+    public static void firstFrame() {
+        if (firstFrameMillis >= 0) {
+            return;
+        }
+        firstFrameMillis = uptime();
+        if (Boolean.getBoolean("minidungeon.startupBenchmark")) {
+            System.out.println("startup: stage-shown=" + stageShownMillis + " ms first-frame=" + firstFrameMillis + " ms");
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Returns the time from JVM start to the first game frame.
+     * @return the time in milliseconds, or -1 if no frame has been rendered yet
+     */
+    public static long getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    private static long uptime() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}